@@ -3,6 +3,8 @@ package com.froidcheikh.ecommerce.controller;
 import com.froidcheikh.ecommerce.dto.CommandeDTO;
 import com.froidcheikh.ecommerce.dto.ProduitDTO;
 import com.froidcheikh.ecommerce.dto.ClientDTO;
+import com.froidcheikh.ecommerce.dto.PageCurseurDTO;
+import com.froidcheikh.ecommerce.dto.VentesDTO;
 import com.froidcheikh.ecommerce.entity.Client;
 import com.froidcheikh.ecommerce.entity.Commande;
 import com.froidcheikh.ecommerce.service.*;
@@ -40,6 +42,7 @@ public class AdminController {
     private final ProduitService produitService;
     private final ClientService clientService;
     private final StatistiquesService statistiquesService;
+    private final ProduitCacheService produitCacheService;
 
     // Dashboard et statistiques
     @GetMapping("/dashboard")
@@ -62,6 +65,11 @@ public class AdminController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getStatistiquesCache() {
+        return ResponseEntity.ok(Map.of("produits", produitCacheService.getStatistiques()));
+    }
+
     // Gestion des commandes
     @GetMapping("/commandes1")
     public ResponseEntity<Page<CommandeDTO>> getAllCommandes1(
@@ -213,19 +221,19 @@ public class AdminController {
 
     // Rapports
     @GetMapping("/rapports/ventes")
-    public ResponseEntity<Object> getRapportVentes(
+    public ResponseEntity<VentesDTO.RapportVentesDTO> getRapportVentes(
             @RequestParam String dateDebut,
             @RequestParam String dateFin) {
 
-        Object rapport = statistiquesService.getRapportVentes(dateDebut, dateFin);
+        VentesDTO.RapportVentesDTO rapport = statistiquesService.getRapportVentes(dateDebut, dateFin);
         return ResponseEntity.ok(rapport);
     }
 
     @GetMapping("/rapports/produits-populaires")
-    public ResponseEntity<List<Object>> getProduitsPopulaires(
+    public ResponseEntity<List<VentesDTO.ProduitPopulaireDTO>> getProduitsPopulaires(
             @RequestParam(defaultValue = "30") int jours) {
 
-        List<Object> produits = statistiquesService.getProduitsPopulaires(jours);
+        List<VentesDTO.ProduitPopulaireDTO> produits = statistiquesService.getProduitsPopulaires(jours);
         return ResponseEntity.ok(produits);
     }
 
@@ -387,6 +395,32 @@ public class AdminController {
         }
     }
 
+    /**
+     * Récupérer les commandes par curseur (pagination sans OFFSET ni COUNT)
+     */
+    @GetMapping("/commandes/curseur")
+    public ResponseEntity<?> getCommandesCurseur(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String statut) {
+
+        Commande.StatutCommande statutEnum = null;
+        if (statut != null && !statut.trim().isEmpty()) {
+            try {
+                statutEnum = Commande.StatutCommande.valueOf(statut.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                log.warn("⚠️ Statut invalide reçu: {}", statut);
+                return ResponseEntity.badRequest().body(Map.of(
+                        "error", "Statut invalide",
+                        "message", "Le statut fourni n'est pas valide: " + statut
+                ));
+            }
+        }
+
+        PageCurseurDTO<CommandeDTO> commandes = commandeService.getCommandesAdminCurseur(curseur, size, statutEnum);
+        return ResponseEntity.ok(commandes);
+    }
+
     /**
      * Récupérer une commande par son ID
      */
@@ -5,6 +5,7 @@ import com.froidcheikh.ecommerce.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -43,4 +44,13 @@ public class AuthController {
         // Dans une implémentation complète, vous pourriez blacklister le token
         return ResponseEntity.ok("Déconnexion réussie");
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<String> logoutAll(Authentication authentication) {
+        if (authentication == null) {
+            throw new RuntimeException("Authentification requise");
+        }
+        authService.revoquerSessions(authentication.getName());
+        return ResponseEntity.ok("Toutes les sessions ont été révoquées");
+    }
 }
\ No newline at end of file
@@ -93,7 +93,7 @@ public class CategorieController {
             }
 
             // Upload de la nouvelle image
-            String imagePath = fileService.uploadFile(file, "categories");
+            String imagePath = fileService.uploadImage(file, "categories");
 
             // Mettre à jour la catégorie
             categorie.setImageCategorie(imagePath);
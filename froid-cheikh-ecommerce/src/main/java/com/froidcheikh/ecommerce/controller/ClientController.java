@@ -1,6 +1,7 @@
 package com.froidcheikh.ecommerce.controller;
 
 import com.froidcheikh.ecommerce.dto.ClientDTO;
+import com.froidcheikh.ecommerce.dto.ProduitDTO;
 import com.froidcheikh.ecommerce.service.ClientService;
 import com.froidcheikh.ecommerce.service.ProduitService;
 import lombok.RequiredArgsConstructor;
@@ -113,6 +114,16 @@ public class ClientController {
         return ResponseEntity.ok(wishlist);
     }
 
+    // Produits de la wishlist en un appel (fiches servies par le cache produit)
+    @GetMapping("/wishlist/produits")
+    @PreAuthorize("hasRole('CLIENT')")
+    public ResponseEntity<List<ProduitDTO>> getWishlistProduits(Authentication authentication) {
+        String email = authentication.getName();
+        ClientDTO client = clientService.getClientByEmail(email);
+        List<Long> wishlist = clientService.getWishlist(client.getIdClient());
+        return ResponseEntity.ok(produitService.getProduitsById(wishlist));
+    }
+
     @PostMapping("/wishlist/{produitId}")
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<String> ajouterAWishlist(
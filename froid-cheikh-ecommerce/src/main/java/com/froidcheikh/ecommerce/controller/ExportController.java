@@ -0,0 +1,66 @@
+package com.froidcheikh.ecommerce.controller;
+
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'GESTIONNAIRE')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    // Ex : /api/admin/export/commandes?format=ndjson&dateDebut=2025-01-01&dateFin=2025-01-31&statut=LIVREE
+    @GetMapping("/commandes")
+    public ResponseEntity<StreamingResponseBody> exporterCommandes(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @RequestParam(required = false) String statut) {
+
+        ExportService.Format formatExport = ExportService.Format.depuis(format);
+        Commande.StatutCommande statutCommande = statut != null
+                ? Commande.StatutCommande.valueOf(statut.toUpperCase())
+                : null;
+
+        StreamingResponseBody corps = sortie ->
+                exportService.exporterCommandes(sortie, formatExport, dateDebut, dateFin, statutCommande);
+        return reponse("commandes", formatExport, corps);
+    }
+
+    @GetMapping("/clients")
+    public ResponseEntity<StreamingResponseBody> exporterClients(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @RequestParam(required = false) Boolean actif) {
+
+        ExportService.Format formatExport = ExportService.Format.depuis(format);
+
+        StreamingResponseBody corps = sortie ->
+                exportService.exporterClients(sortie, formatExport, dateDebut, dateFin, actif);
+        return reponse("clients", formatExport, corps);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> reponse(String nom, ExportService.Format format,
+                                                                 StreamingResponseBody corps) {
+        String fichier = nom + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fichier + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(corps);
+    }
+}
@@ -1,20 +1,16 @@
 package com.froidcheikh.ecommerce.controller;
 
+import com.froidcheikh.ecommerce.service.FichierStatiqueService;
 import com.froidcheikh.ecommerce.service.FileService;
+import com.froidcheikh.ecommerce.service.ImageDeriveeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 
 @RestController
 @RequestMapping("/api/files")
@@ -24,6 +20,8 @@ import java.nio.file.Path;
 public class FileController {
 
     private final FileService fileService;
+    private final ImageDeriveeService imageDeriveeService;
+    private final FichierStatiqueService fichierStatiqueService;
 
     /**
      * Sert les fichiers uploadés (images, PDF, etc.)
@@ -68,56 +66,62 @@ public class FileController {
     }
      */
     @GetMapping("/uploads")
-    public ResponseEntity<Resource> serveFile(@RequestParam String path) {
+    public void serveFile(@RequestParam String path,
+                          @RequestParam(required = false) String size,
+                          HttpServletRequest request,
+                          HttpServletResponse response) {
         String[] parts = path.split("/", 2);
         if (parts.length == 2) {
-            return serveFileByPath(parts[0], parts[1]);
+            serveFileByPath(parts[0], parts[1], size, request, response);
+        } else {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         }
-        return ResponseEntity.badRequest().build();
     }
 
     /**
-     * Alternative avec path variable (plus propre pour les URLs)
+     * Alternative avec path variable (plus propre pour les URLs).
+     * size=thumb|medium|large sert la déclinaison de l'image, ou l'original si elle n'existe pas.
+     * Gère Range, If-None-Match/If-Modified-Since et If-Range (voir FichierStatiqueService).
      */
     @GetMapping("/uploads/{category}/{filename:.+}")
-    public ResponseEntity<Resource> serveFileByPath(
+    public void serveFileByPath(
             @PathVariable String category,
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @RequestParam(required = false) String size,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
+        String filePath = category + "/" + filename;
         try {
-            String filePath = category + "/" + filename;
-            log.info("🔍 Serving file: {}", filePath);
-
-            // Vérifier que le fichier existe
-            if (!fileService.fileExists(filePath)) {
-                log.warn("❌ Fichier non trouvé: {}", filePath);
-                return ResponseEntity.notFound().build();
+            log.debug("🔍 Serving file: {} (size={})", filePath, size);
+
+            if (size != null) {
+                String derivePath = imageDeriveeService.cheminDerive(filePath, ImageDeriveeService.TailleImage.depuis(size));
+                if (fichierStatiqueService.servir(fileService.getFilePath(derivePath),
+                        fileService.isImmutableFileName(derivePath), request, response)) {
+                    return;
+                }
             }
 
-            // Obtenir le chemin complet du fichier
-            Path file = fileService.getFilePath(filePath);
-
-            // Créer la ressource
-            Resource resource = new UrlResource(file.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                log.warn("❌ Fichier non lisible: {}", filePath);
-                return ResponseEntity.notFound().build();
+            // Sans déclinaison disponible, l'original servi à la place ne doit pas être figé dans les caches
+            boolean immutable = size == null && fileService.isImmutableFileName(filePath);
+            if (!fichierStatiqueService.servir(fileService.getFilePath(filePath), immutable, request, response)) {
+                log.debug("❌ Fichier non trouvé: {}", filePath);
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
             }
 
-            // Déterminer le type de contenu
-            String contentType = determineContentType(file);
-            log.info("✅ Serving file: {} with content type: {}", filePath, contentType);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
-
+        } catch (IllegalArgumentException e) {
+            log.warn("❌ Requête de fichier invalide: {}", e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (IOException e) {
+            // Le plus souvent une connexion fermée par le client pendant l'envoi
+            log.debug("Envoi interrompu pour {}: {}", filePath, e.getMessage());
         } catch (Exception e) {
-            log.error("❌ Erreur lors du service du fichier: {}/{}", category, filename, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("❌ Erreur lors du service du fichier: {}", filePath, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -130,37 +134,7 @@ public class FileController {
     @GetMapping("/exists")
     public ResponseEntity<Boolean> fileExists(@RequestParam String filePath) {
         boolean exists = fileService.fileExists(filePath);
-        log.info("🔍 File exists check: {} -> {}", filePath, exists);
+        log.debug("🔍 File exists check: {} -> {}", filePath, exists);
         return ResponseEntity.ok(exists);
     }
-
-    /**
-     * Détermine le type de contenu basé sur l'extension du fichier
-     */
-    private String determineContentType(Path file) {
-        try {
-            String contentType = Files.probeContentType(file);
-            if (contentType != null) {
-                return contentType;
-            }
-        } catch (IOException e) {
-            log.debug("Impossible de déterminer le type de contenu pour: {}", file);
-        }
-
-        String filename = file.getFileName().toString().toLowerCase();
-
-        if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) {
-            return "image/jpeg";
-        } else if (filename.endsWith(".png")) {
-            return "image/png";
-        } else if (filename.endsWith(".gif")) {
-            return "image/gif";
-        } else if (filename.endsWith(".webp")) {
-            return "image/webp";
-        } else if (filename.endsWith(".pdf")) {
-            return "application/pdf";
-        }
-
-        return "application/octet-stream";
-    }
-}
\ No newline at end of file
+}
@@ -86,7 +86,7 @@ public class MarqueController {
             }
 
             // Upload du nouveau logo
-            String logoPath = fileService.uploadFile(file, "marques/logos");
+            String logoPath = fileService.uploadImage(file, "marques/logos");
 
             // Mettre à jour la marque
             marque.setLogo(logoPath);
@@ -1,14 +1,19 @@
 package com.froidcheikh.ecommerce.controller;
 
+import com.froidcheikh.ecommerce.dto.PageCurseurDTO;
 import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.dto.ProduitFacettesDTO;
+import com.froidcheikh.ecommerce.entity.Produit;
 import com.froidcheikh.ecommerce.service.ProduitService;
 import com.froidcheikh.ecommerce.service.FileService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -44,6 +49,15 @@ public class ProduitController {
         return ResponseEntity.ok(produits);
     }
 
+    @GetMapping("/curseur")
+    public ResponseEntity<PageCurseurDTO<ProduitDTO>> getProduitsCurseur(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "12") int size) {
+
+        PageCurseurDTO<ProduitDTO> produits = produitService.getProduitsCurseur(curseur, size);
+        return ResponseEntity.ok(produits);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProduitDTO> getProduitById(@PathVariable Long id) {
         ProduitDTO produit = produitService.getProduitById(id);
@@ -110,6 +124,28 @@ public class ProduitController {
         return ResponseEntity.ok(produits);
     }
 
+    @GetMapping("/filter/facettes")
+    public ResponseEntity<ProduitFacettesDTO> getProduitsAvecFacettes(
+            @RequestParam(required = false) String nom,
+            @RequestParam(required = false) BigDecimal prixMin,
+            @RequestParam(required = false) BigDecimal prixMax,
+            @RequestParam(required = false) Long categorieId,
+            @RequestParam(required = false) Long marqueId,
+            @RequestParam(required = false) Produit.LabelEnergie labelEnergie,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "prix") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        ProduitFacettesDTO resultat = produitService.getProduitsAvecFacettes(
+                nom, prixMin, prixMax, categorieId, marqueId, labelEnergie, pageable);
+        return ResponseEntity.ok(resultat);
+    }
+
     @GetMapping("/latest")
     public ResponseEntity<Page<ProduitDTO>> getLatestProduits(
             @RequestParam(defaultValue = "0") int page,
@@ -120,6 +156,15 @@ public class ProduitController {
         return ResponseEntity.ok(produits);
     }
 
+    @GetMapping("/latest/curseur")
+    public ResponseEntity<PageCurseurDTO<ProduitDTO>> getLatestProduitsCurseur(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "8") int size) {
+
+        PageCurseurDTO<ProduitDTO> produits = produitService.getLatestProduitsCurseur(curseur, size);
+        return ResponseEntity.ok(produits);
+    }
+
     @PostMapping("/batch")
     public ResponseEntity<List<ProduitDTO>> getProduitsById(@RequestBody List<Long> ids) {
         List<ProduitDTO> produits = produitService.getProduitsById(ids);
@@ -216,41 +261,64 @@ public class ProduitController {
             ProduitDTO produit = produitService.getProduitById(id);
             log.info("Produit trouvé: {}", produit.getNomProduit());
 
-            List<String> imagePaths = new ArrayList<>();
-
             for (MultipartFile file : files) {
                 log.info("Traitement du fichier: {} ({})", file.getOriginalFilename(), file.getSize());
 
                 if (!fileService.isValidImageFile(file)) {
                     throw new RuntimeException("Format d'image non valide : " + file.getOriginalFilename());
                 }
-
-                // Upload du fichier et récupération du chemin relatif
-                String imagePath = fileService.uploadFile(file, "produits/images");
-                imagePaths.add(imagePath);
-                log.info("✅ Fichier uploadé: {}", imagePath);
             }
 
-            // CORRECTION: Ajouter les chemins d'images au produit EXISTANT
-            List<String> currentImages = produit.getListeImages() != null
-                    ? new ArrayList<>(produit.getListeImages())
-                    : new ArrayList<>();
+            // Upload des fichiers et génération des déclinaisons (thumb, medium, large)
+            List<String> imagePaths = fileService.uploadImages(files, "produits/images");
+            log.info("✅ {} fichier(s) uploadé(s): {}", imagePaths.size(), imagePaths);
 
-            currentImages.addAll(imagePaths);
-            produit.setListeImages(currentImages);
+            ajouterImages(id, produit, imagePaths);
+            return ResponseEntity.ok(imagePaths);
 
-            // IMPORTANT: Mettre à jour le produit avec les nouvelles images
-            produitService.updateProduit(id, produit);
-            log.info("✅ Produit mis à jour avec {} images total", currentImages.size());
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'upload des images pour le produit {}: {}", id, e.getMessage(), e);
+            throw new RuntimeException("Erreur lors de l'upload des images : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upload en flux d'un lot d'images (jusqu'à app.upload.flux.fichiers-max) : la requête multipart est lue
+     * une seule fois, sans fichiers temporaires intermédiaires ni copie en mémoire de chaque image.
+     * Le type de chaque image est vérifié sur son contenu, pas sur son Content-Type.
+     */
+    @PostMapping(value = "/{id}/images/flux", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'GESTIONNAIRE')")
+    public ResponseEntity<List<String>> uploadImagesFlux(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            // Vérifier que le produit existe avant de lire le corps de la requête
+            ProduitDTO produit = produitService.getProduitById(id);
+
+            List<String> imagePaths = fileService.uploadImagesStreaming(request, "produits/images");
+            log.info("✅ {} image(s) uploadée(s) en flux pour le produit {}", imagePaths.size(), id);
 
+            ajouterImages(id, produit, imagePaths);
             return ResponseEntity.ok(imagePaths);
 
         } catch (Exception e) {
-            log.error("❌ Erreur lors de l'upload des images pour le produit {}: {}", id, e.getMessage(), e);
+            log.error("❌ Erreur lors de l'upload en flux des images pour le produit {}: {}", id, e.getMessage(), e);
             throw new RuntimeException("Erreur lors de l'upload des images : " + e.getMessage());
         }
     }
 
+    // Ajoute les chemins d'images au produit EXISTANT puis le met à jour
+    private void ajouterImages(Long id, ProduitDTO produit, List<String> imagePaths) {
+        List<String> currentImages = produit.getListeImages() != null
+                ? new ArrayList<>(produit.getListeImages())
+                : new ArrayList<>();
+
+        currentImages.addAll(imagePaths);
+        produit.setListeImages(currentImages);
+
+        produitService.updateProduit(id, produit);
+        log.info("✅ Produit mis à jour avec {} images total", currentImages.size());
+    }
+
 
     @PostMapping("/{id}/fiche-technique")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'GESTIONNAIRE')")
@@ -294,7 +362,7 @@ public class ProduitController {
             if (produit.getListeImages() != null && imageIndex >= 0 && imageIndex < produit.getListeImages().size()) {
                 String imageToDelete = produit.getListeImages().get(imageIndex);
 
-                // Supprimer le fichier physique
+                // Libérer le fichier (supprimé plus tard s'il n'est plus référencé)
                 fileService.deleteFile(imageToDelete);
 
                 // Mettre à jour la liste des images
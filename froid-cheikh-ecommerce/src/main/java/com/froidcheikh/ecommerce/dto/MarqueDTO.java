@@ -22,4 +22,5 @@ public class MarqueDTO {
 
     // Statistiques
     private Long nombreProduits;
+    private Long nombreProduitsDisponibles;
 }
\ No newline at end of file
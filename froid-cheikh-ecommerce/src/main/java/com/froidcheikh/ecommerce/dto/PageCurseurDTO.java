@@ -0,0 +1,20 @@
+package com.froidcheikh.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCurseurDTO<T> {
+
+    private List<T> contenu;
+    private Integer taille;
+
+    // Curseur à renvoyer pour obtenir la page suivante, null s'il n'y en a plus
+    private String curseurSuivant;
+    private Boolean pageSuivante;
+}
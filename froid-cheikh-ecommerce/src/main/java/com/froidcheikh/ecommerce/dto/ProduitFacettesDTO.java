@@ -0,0 +1,31 @@
+package com.froidcheikh.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProduitFacettesDTO {
+
+    private Page<ProduitDTO> produits;
+
+    // Nombre de produits par valeur, calculé avec tous les autres filtres appliqués
+    private List<FacetteDTO> categories;
+    private List<FacetteDTO> marques;
+    private List<FacetteDTO> labelsEnergie;
+    private List<FacetteDTO> tranchesPrix;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetteDTO {
+        private String valeur;
+        private String libelle;
+        private Long nombre;
+    }
+}
@@ -0,0 +1,55 @@
+package com.froidcheikh.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rapports de ventes construits à partir des agrégats journaliers.
+ */
+public final class VentesDTO {
+
+    private VentesDTO() { /* conteneur des DTO de rapport */ }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VenteJourDTO {
+        private LocalDate jour;
+        private Long nombreCommandes;
+        private BigDecimal chiffreAffaires;
+        private Long unitesVendues;
+        private Long nombreAnnulations;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProduitPopulaireDTO {
+        private Long idProduit;
+        private String nomProduit;
+        private String refProduit;
+        private Long unitesVendues;
+        private BigDecimal chiffreAffaires;
+        private Long nombreCommandes;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RapportVentesDTO {
+        private LocalDate dateDebut;
+        private LocalDate dateFin;
+        private Long nombreCommandes;
+        private BigDecimal chiffreAffaires;
+        private Long unitesVendues;
+        private Long nombreAnnulations;
+        private BigDecimal panierMoyen;
+        private List<VenteJourDTO> ventesParJour;
+        private List<ProduitPopulaireDTO> produitsPopulaires;
+    }
+}
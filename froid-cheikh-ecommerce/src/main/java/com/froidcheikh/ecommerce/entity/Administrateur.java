@@ -51,6 +51,10 @@ public class Administrateur implements UserDetails {
     @Column(name = "actif")
     private Boolean actif = true;
 
+    // Incrémentée à chaque révocation des sessions : un JWT portant une autre version est refusé (voir PrincipalCache)
+    @Column(name = "version_jeton", nullable = false)
+    private Long versionJeton = 0L;
+
     @CreationTimestamp
     @Column(name = "date_creation")
     private LocalDateTime dateCreation;
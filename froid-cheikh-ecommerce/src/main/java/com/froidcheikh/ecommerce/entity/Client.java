@@ -1,5 +1,6 @@
 package com.froidcheikh.ecommerce.entity;
 
+import com.froidcheikh.ecommerce.util.TexteUtils;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -13,6 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "clients")
@@ -59,6 +61,10 @@ public class Client implements UserDetails {
     @Column(name = "actif")
     private Boolean actif = true;
 
+    // Incrémentée à chaque révocation des sessions : un JWT portant une autre version est refusé (voir PrincipalCache)
+    @Column(name = "version_jeton", nullable = false)
+    private Long versionJeton = 0L;
+
     @CreationTimestamp
     @Column(name = "date_creation")
     private LocalDateTime dateCreation;
@@ -69,10 +75,31 @@ public class Client implements UserDetails {
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Commande> commandes;
 
+    // Ensemble non nullable : Hibernate pose la clé primaire (client_id, produit_id) sur client_wishlist.
+    // Écrite ligne par ligne par ClientRepository (INSERT ... ON CONFLICT / DELETE), jamais réécrite en entier.
     @ElementCollection
     @CollectionTable(name = "client_wishlist", joinColumns = @JoinColumn(name = "client_id"))
-    @Column(name = "produit_id")
-    private List<Long> wishlist;
+    @Column(name = "produit_id", nullable = false)
+    private Set<Long> wishlist;
+
+    // Prénom, nom, prénom, email, téléphone normalisés : "awa diop awa awa@mail.sn 771234567".
+    // Le prénom est répété pour trouver "Awa Diop" comme "Diop Awa" ; index trigramme créé par ClientRechercheIndex.
+    @Column(name = "recherche", length = 512)
+    private String recherche;
+
+    @PrePersist
+    @PreUpdate
+    void majRecherche() {
+        recherche = cleRecherche(nom, prenom, email, telephone);
+    }
+
+    public void revoquerJetons() {
+        versionJeton = versionJeton + 1;
+    }
+
+    public static String cleRecherche(String nom, String prenom, String email, String telephone) {
+        return TexteUtils.cleRecherche(prenom, nom, prenom, email, telephone);
+    }
 
     public enum Genre {
         HOMME, FEMME, AUTRE
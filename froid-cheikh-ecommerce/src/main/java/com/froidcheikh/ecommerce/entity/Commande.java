@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "commandes")
+@Table(name = "commandes", indexes = {
+        @Index(name = "idx_commandes_date_id", columnList = "date_commande DESC, id_commande DESC"),
+        @Index(name = "idx_commandes_statut_date_id", columnList = "statut_commande, date_commande DESC, id_commande DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
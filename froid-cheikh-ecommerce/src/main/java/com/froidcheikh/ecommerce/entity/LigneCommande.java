@@ -17,7 +17,9 @@ import java.math.BigDecimal;
 public class LigneCommande {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Séquence (pas IDENTITY) pour que Hibernate puisse regrouper les INSERT des lignes en batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lignes_commande_seq")
+    @SequenceGenerator(name = "lignes_commande_seq", sequenceName = "lignes_commande_seq", allocationSize = 50)
     @Column(name = "id_ligne_commande")
     private Long idLigneCommande;
 
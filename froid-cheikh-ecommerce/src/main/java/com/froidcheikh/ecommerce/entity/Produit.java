@@ -5,6 +5,7 @@ import jakarta.validation.constraints.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +14,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "produits")
+@Table(name = "produits", indexes = {
+        @Index(name = "idx_produits_date_ajout_id", columnList = "date_ajout DESC, id_produit DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -69,11 +72,13 @@ public class Produit {
     @Column(name = "fiche_technique_pdf")
     private String ficheTechniquePDF;
 
+    @BatchSize(size = 50)
     @ElementCollection
     @CollectionTable(name = "produit_images", joinColumns = @JoinColumn(name = "produit_id"))
     @Column(name = "image_url", columnDefinition = "text")
     private List<String> listeImages;
 
+    @BatchSize(size = 50)
     @ElementCollection
     @CollectionTable(name = "produit_videos", joinColumns = @JoinColumn(name = "produit_id"))
     @Column(name = "video_url")
@@ -98,6 +103,7 @@ public class Produit {
     @JoinColumn(name = "marque_id")
     private Marque marque;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "produit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AttributProduit> attributs;
 
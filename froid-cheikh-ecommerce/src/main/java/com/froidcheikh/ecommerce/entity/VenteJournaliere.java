@@ -0,0 +1,37 @@
+package com.froidcheikh.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat des ventes d'une journée (date de commande), maintenu par VenteRollupService.
+ * Chiffre d'affaires et unités sont nets des commandes annulées ou remboursées.
+ */
+@Entity
+@Table(name = "ventes_journalieres")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenteJournaliere {
+
+    @Id
+    @Column(name = "jour")
+    private LocalDate jour;
+
+    @Column(name = "nombre_commandes", nullable = false)
+    private long nombreCommandes;
+
+    @Column(name = "chiffre_affaires", nullable = false, precision = 14, scale = 2)
+    private BigDecimal chiffreAffaires = BigDecimal.ZERO;
+
+    @Column(name = "unites_vendues", nullable = false)
+    private long unitesVendues;
+
+    @Column(name = "nombre_annulations", nullable = false)
+    private long nombreAnnulations;
+}
@@ -0,0 +1,53 @@
+package com.froidcheikh.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat des ventes d'un produit sur une journée, maintenu par VenteRollupService.
+ * produitId n'est pas une association pour que l'historique survive à la suppression du produit.
+ */
+@Entity
+@Table(name = "ventes_produits_journalieres", indexes = {
+        @Index(name = "idx_ventes_produits_produit_jour", columnList = "produit_id, jour")
+})
+@IdClass(VenteProduitJournaliere.Cle.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenteProduitJournaliere {
+
+    @Id
+    @Column(name = "jour")
+    private LocalDate jour;
+
+    @Id
+    @Column(name = "produit_id")
+    private Long produitId;
+
+    @Column(name = "nombre_commandes", nullable = false)
+    private long nombreCommandes;
+
+    @Column(name = "unites_vendues", nullable = false)
+    private long unitesVendues;
+
+    @Column(name = "chiffre_affaires", nullable = false, precision = 14, scale = 2)
+    private BigDecimal chiffreAffaires = BigDecimal.ZERO;
+
+    @Column(name = "unites_annulees", nullable = false)
+    private long unitesAnnulees;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cle implements Serializable {
+        private LocalDate jour;
+        private Long produitId;
+    }
+}
@@ -0,0 +1,7 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié par CategorieService après la création, la modification ou la suppression d'une catégorie.
+ */
+public record CategorieModifieeEvent(Long idCategorie) {
+}
@@ -0,0 +1,7 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié à la création d'un compte client (inscription ou création par un administrateur).
+ */
+public record ClientInscritEvent(Long idClient) {
+}
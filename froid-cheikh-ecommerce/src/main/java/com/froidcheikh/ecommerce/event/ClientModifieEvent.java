@@ -0,0 +1,9 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié quand un compte change (profil, mot de passe, activation, suppression, révocation des sessions).
+ * Porte l'email car c'est la clé des principaux mis en cache par le filtre JWT ;
+ * revoquerSessions indique que la version des jetons du compte a été incrémentée en base.
+ */
+public record ClientModifieEvent(String email, boolean revoquerSessions) {
+}
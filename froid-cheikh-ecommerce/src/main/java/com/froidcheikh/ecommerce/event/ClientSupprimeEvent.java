@@ -0,0 +1,7 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié par ClientService après la suppression d'un compte client.
+ */
+public record ClientSupprimeEvent(Long idClient) {
+}
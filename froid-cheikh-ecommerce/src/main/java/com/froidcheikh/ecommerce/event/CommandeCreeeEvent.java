@@ -0,0 +1,17 @@
+package com.froidcheikh.ecommerce.event;
+
+import com.froidcheikh.ecommerce.entity.Commande;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Publié par CommandeService après l'enregistrement d'une nouvelle commande.
+ * idClient est null pour une commande invité.
+ */
+public record CommandeCreeeEvent(Long idCommande,
+                                 Long idClient,
+                                 LocalDateTime dateCommande,
+                                 Commande.StatutCommande statut,
+                                 BigDecimal montantTotal) {
+}
@@ -0,0 +1,34 @@
+package com.froidcheikh.ecommerce.event;
+
+import com.froidcheikh.ecommerce.entity.Commande;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié par CommandeService à chaque changement de statut d'une commande.
+ * nouveauStatut est null lorsque la commande a été supprimée.
+ */
+public record CommandeStatutModifieEvent(Long idCommande,
+                                         Long idClient,
+                                         LocalDateTime dateCommande,
+                                         Commande.StatutCommande ancienStatut,
+                                         Commande.StatutCommande nouveauStatut) {
+
+    public static CommandeStatutModifieEvent supprimee(Commande commande) {
+        return new CommandeStatutModifieEvent(commande.getIdCommande(), idClient(commande),
+                commande.getDateCommande(), commande.getStatutCommande(), null);
+    }
+
+    public static CommandeStatutModifieEvent of(Commande commande, Commande.StatutCommande ancienStatut) {
+        return new CommandeStatutModifieEvent(commande.getIdCommande(), idClient(commande),
+                commande.getDateCommande(), ancienStatut, commande.getStatutCommande());
+    }
+
+    public boolean isSuppression() {
+        return nouveauStatut == null;
+    }
+
+    private static Long idClient(Commande commande) {
+        return commande.getClient() != null ? commande.getClient().getIdClient() : null;
+    }
+}
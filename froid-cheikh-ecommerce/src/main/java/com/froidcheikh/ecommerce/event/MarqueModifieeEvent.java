@@ -0,0 +1,7 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié par MarqueService après la création, la modification ou la suppression d'une marque.
+ */
+public record MarqueModifieeEvent(Long idMarque) {
+}
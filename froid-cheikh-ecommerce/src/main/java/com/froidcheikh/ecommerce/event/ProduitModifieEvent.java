@@ -0,0 +1,16 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié par ProduitService à chaque création, modification ou suppression d'un produit.
+ * Le snapshot est null lorsque le produit a été supprimé.
+ */
+public record ProduitModifieEvent(Long idProduit, ProduitSnapshot produit) {
+
+    public static ProduitModifieEvent supprime(Long idProduit) {
+        return new ProduitModifieEvent(idProduit, null);
+    }
+
+    public boolean isSuppression() {
+        return produit == null;
+    }
+}
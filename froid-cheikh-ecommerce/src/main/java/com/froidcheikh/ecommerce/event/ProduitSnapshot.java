@@ -0,0 +1,51 @@
+package com.froidcheikh.ecommerce.event;
+
+import com.froidcheikh.ecommerce.entity.Produit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Copie immuable d'un produit, construite dans la transaction qui l'a modifié
+ * pour pouvoir être consommée après le commit sans chargement paresseux.
+ */
+public record ProduitSnapshot(
+        Long idProduit,
+        String nomProduit,
+        String descriptionProduit,
+        String refProduit,
+        BigDecimal prix,
+        Integer stockDisponible,
+        boolean disponible,
+        Produit.LabelEnergie labelEnergie,
+        LocalDateTime dateAjout,
+        Long categorieId,
+        String nomCategorie,
+        Long marqueId,
+        String nomMarque
+) {
+
+    public static ProduitSnapshot of(Produit produit) {
+        return new ProduitSnapshot(
+                produit.getIdProduit(),
+                produit.getNomProduit(),
+                produit.getDescriptionProduit(),
+                produit.getRefProduit(),
+                produit.getPrix(),
+                produit.getStockDisponible(),
+                Boolean.TRUE.equals(produit.getDisponibilite()),
+                produit.getLabelEnergie(),
+                produit.getDateAjout(),
+                produit.getCategorie() != null ? produit.getCategorie().getIdCategorie() : null,
+                produit.getCategorie() != null ? produit.getCategorie().getNomCategorie() : null,
+                produit.getMarque() != null ? produit.getMarque().getIdMarque() : null,
+                produit.getMarque() != null ? produit.getMarque().getNomMarque() : null
+        );
+    }
+
+    public ProduitSnapshot avecStock(Integer nouveauStock, boolean nouvelleDisponibilite) {
+        return new ProduitSnapshot(idProduit, nomProduit, descriptionProduit, refProduit, prix,
+                nouveauStock, nouvelleDisponibilite, labelEnergie, dateAjout,
+                categorieId, nomCategorie, marqueId, nomMarque);
+    }
+}
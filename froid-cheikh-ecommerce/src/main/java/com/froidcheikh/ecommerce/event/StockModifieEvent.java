@@ -0,0 +1,8 @@
+package com.froidcheikh.ecommerce.event;
+
+/**
+ * Publié par StockReservationService après une réservation ou une libération de stock
+ * faite directement en SQL, avec les valeurs relues en base.
+ */
+public record StockModifieEvent(Long idProduit, Integer stockDisponible, boolean disponible) {
+}
@@ -0,0 +1,22 @@
+package com.froidcheikh.ecommerce.mapper;
+
+import com.froidcheikh.ecommerce.dto.CategorieDTO;
+import com.froidcheikh.ecommerce.entity.Categorie;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface CategorieMapper {
+
+    // Le nombre de produits est renseigné par CategorieService
+    @Mapping(target = "parentId", source = "parent.idCategorie")
+    @Mapping(target = "nomParent", source = "parent.nomCategorie")
+    @Mapping(target = "nombreProduits", ignore = true)
+    CategorieDTO toDTO(Categorie categorie);
+
+    // Le parent est résolu depuis la base par CategorieService
+    @Mapping(target = "parent", ignore = true)
+    @Mapping(target = "produits", ignore = true)
+    @Mapping(target = "sousCategories", ignore = true)
+    Categorie toEntity(CategorieDTO dto);
+}
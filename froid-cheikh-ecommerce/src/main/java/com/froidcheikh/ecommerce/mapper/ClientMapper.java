@@ -0,0 +1,41 @@
+package com.froidcheikh.ecommerce.mapper;
+
+import com.froidcheikh.ecommerce.dto.AuthDTO;
+import com.froidcheikh.ecommerce.dto.ClientDTO;
+import com.froidcheikh.ecommerce.entity.Adresse;
+import com.froidcheikh.ecommerce.entity.Client;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface ClientMapper {
+
+    ClientDTO toDTO(Client client);
+
+    ClientDTO.AdresseDTO toAdresseDTO(Adresse adresse);
+
+    @Mapping(target = "motDePasse", ignore = true)
+    @Mapping(target = "commandes", ignore = true)
+    @Mapping(target = "authorities", ignore = true)
+    @Mapping(target = "recherche", ignore = true)
+    @Mapping(target = "versionJeton", ignore = true)
+    Client toEntity(ClientDTO dto);
+
+    // Le mot de passe est encodé par ClientService
+    @Mapping(target = "idClient", ignore = true)
+    @Mapping(target = "motDePasse", ignore = true)
+    @Mapping(target = "dateNaissance", ignore = true)
+    @Mapping(target = "genre", ignore = true)
+    @Mapping(target = "actif", ignore = true)
+    @Mapping(target = "dateCreation", ignore = true)
+    @Mapping(target = "adresses", ignore = true)
+    @Mapping(target = "commandes", ignore = true)
+    @Mapping(target = "wishlist", ignore = true)
+    @Mapping(target = "authorities", ignore = true)
+    @Mapping(target = "recherche", ignore = true)
+    @Mapping(target = "versionJeton", ignore = true)
+    Client toEntity(AuthDTO.RegisterRequest registerRequest);
+
+    @Mapping(target = "client", ignore = true)
+    Adresse toAdresseEntity(ClientDTO.AdresseDTO dto);
+}
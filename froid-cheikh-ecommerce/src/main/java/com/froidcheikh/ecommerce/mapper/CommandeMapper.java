@@ -0,0 +1,22 @@
+package com.froidcheikh.ecommerce.mapper;
+
+import com.froidcheikh.ecommerce.dto.CommandeDTO;
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.entity.LigneCommande;
+import com.froidcheikh.ecommerce.entity.Paiement;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface CommandeMapper {
+
+    @Mapping(target = "clientId", source = "client.idClient")
+    CommandeDTO toDTO(Commande commande);
+
+    @Mapping(target = "produitId", source = "produit.idProduit")
+    CommandeDTO.LigneCommandeDTO toLigneDTO(LigneCommande ligne);
+
+    CommandeDTO.PaiementDTO toPaiementDTO(Paiement paiement);
+
+    CommandeDTO.AdresseLivraisonDTO toAdresseLivraisonDTO(Commande.AdresseLivraison adresse);
+}
@@ -0,0 +1,18 @@
+package com.froidcheikh.ecommerce.mapper;
+
+import com.froidcheikh.ecommerce.dto.MarqueDTO;
+import com.froidcheikh.ecommerce.entity.Marque;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface MarqueMapper {
+
+    // Les compteurs de produits sont renseignés par MarqueService
+    @Mapping(target = "nombreProduits", ignore = true)
+    @Mapping(target = "nombreProduitsDisponibles", ignore = true)
+    MarqueDTO toDTO(Marque marque);
+
+    @Mapping(target = "produits", ignore = true)
+    Marque toEntity(MarqueDTO dto);
+}
@@ -0,0 +1,39 @@
+package com.froidcheikh.ecommerce.mapper;
+
+import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.entity.AttributProduit;
+import com.froidcheikh.ecommerce.entity.Categorie;
+import com.froidcheikh.ecommerce.entity.Marque;
+import com.froidcheikh.ecommerce.entity.Produit;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper
+public interface ProduitMapper {
+
+    ProduitDTO toDTO(Produit produit);
+
+    ProduitDTO.CategorieDTO toCategorieDTO(Categorie categorie);
+
+    ProduitDTO.MarqueDTO toMarqueDTO(Marque marque);
+
+    ProduitDTO.AttributProduitDTO toAttributDTO(AttributProduit attribut);
+
+    // Catégorie et marque sont résolues depuis la base par ProduitService
+    @Mapping(target = "categorie", ignore = true)
+    @Mapping(target = "marque", ignore = true)
+    @Mapping(target = "dateModification", ignore = true)
+    Produit toEntity(ProduitDTO dto);
+
+    @Mapping(target = "produit", ignore = true)
+    AttributProduit toAttributEntity(ProduitDTO.AttributProduitDTO dto);
+
+    @AfterMapping
+    default void lierAttributs(@MappingTarget Produit produit) {
+        if (produit.getAttributs() != null) {
+            produit.getAttributs().forEach(attribut -> attribut.setProduit(produit));
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.froidcheikh.ecommerce.repository;
 
 import com.froidcheikh.ecommerce.entity.Administrateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +15,8 @@ public interface AdministrateurRepository extends JpaRepository<Administrateur,
     Optional<Administrateur> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE Administrateur a SET a.versionJeton = a.versionJeton + 1 WHERE a.email = :email")
+    int revoquerJetons(@Param("email") String email);
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package com.froidcheikh.ecommerce.repository;
 
 import com.froidcheikh.ecommerce.entity.Adresse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +17,8 @@ public interface AdresseRepository extends JpaRepository<Adresse, Long> {
     List<Adresse> findByClientIdClient(Long clientId);
 
     Optional<Adresse> findByClientIdClientAndAdressePrincipaleTrue(Long clientId);
+
+    @Modifying
+    @Query("DELETE FROM Adresse a WHERE a.client.idClient IN :clientIds")
+    int deleteByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
 }
\ No newline at end of file
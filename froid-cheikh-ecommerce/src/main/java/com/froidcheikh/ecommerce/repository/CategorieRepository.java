@@ -27,4 +27,13 @@ public interface CategorieRepository extends JpaRepository<Categorie, Long> {
     @Query("SELECT c FROM Categorie c ORDER BY c.nomCategorie") // remplace c.nom par le bon nom de champ
     List<Categorie> findAllOrderByName(); // nom de méthode libre
 
-}
\ No newline at end of file
+    /**
+     * (id, nom, description, image, idParent, nomParent) de toutes les catégories, sans charger d'entité
+     */
+    @Query("SELECT c.idCategorie, c.nomCategorie, c.descriptionCategorie, c.imageCategorie, p.idCategorie, p.nomCategorie " +
+            "FROM Categorie c LEFT JOIN c.parent p")
+    List<Object[]> findAllResumes();
+
+    long countByImageCategorie(String imageCategorie);
+
+}
@@ -4,11 +4,15 @@ import com.froidcheikh.ecommerce.entity.Client;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -25,12 +29,12 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByIdWithCommandes(@Param("id") Long id);
     // Ajout dans ClientRepository.java
 
-    @Query("SELECT c FROM Client c WHERE " +
-            "LOWER(c.nom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(c.prenom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "c.telephone LIKE CONCAT('%', :searchTerm, '%')")
-    Page<Client> searchClients(@Param("searchTerm") String searchTerm, Pageable pageable);
+    /**
+     * Recherche sur la colonne normalisée (motif construit par TexteUtils.motifContient) :
+     * servie par l'index trigramme GIN dès 3 caractères saisis
+     */
+    @Query("SELECT c FROM Client c WHERE c.recherche LIKE :motif ESCAPE '\\'")
+    Page<Client> searchClients(@Param("motif") String motif, Pageable pageable);
 
     @Query("SELECT c FROM Client c WHERE c.actif = :actif")
     Page<Client> findByActif(@Param("actif") Boolean actif, Pageable pageable);
@@ -46,4 +50,72 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 
     @Query("SELECT c FROM Client c LEFT JOIN FETCH c.adresses LEFT JOIN FETCH c.commandes WHERE c.idClient = :id")
     Optional<Client> findByIdWithAdressesAndCommandes(@Param("id") Long id);
-}
\ No newline at end of file
+
+    // Wishlist : une ligne par produit, unicité garantie par la clé primaire (client_id, produit_id)
+
+    @Query(value = "SELECT produit_id FROM client_wishlist WHERE client_id = :clientId", nativeQuery = true)
+    List<Long> findWishlist(@Param("clientId") Long clientId);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_wishlist (client_id, produit_id) VALUES (:clientId, :produitId) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int ajouterAWishlist(@Param("clientId") Long clientId, @Param("produitId") Long produitId);
+
+    @Modifying
+    @Query(value = "DELETE FROM client_wishlist WHERE client_id = :clientId AND produit_id = :produitId",
+            nativeQuery = true)
+    int retirerDeWishlist(@Param("clientId") Long clientId, @Param("produitId") Long produitId);
+
+    /**
+     * Statistiques d'un client calculées en base en un aller-retour (vide si le client n'existe pas)
+     */
+    @Query("SELECT COUNT(co) AS totalCommandes, " +
+            "SUM(CASE WHEN co.statutCommande = LIVREE THEN 1 ELSE 0 END) AS commandesLivrees, " +
+            "SUM(CASE WHEN co.statutCommande NOT IN (LIVREE, ANNULEE) THEN 1 ELSE 0 END) AS commandesEnCours, " +
+            "COALESCE(SUM(CASE WHEN co.statutCommande = LIVREE THEN co.montantTotal END), 0) AS montantTotalAchats, " +
+            "MAX(co.dateCommande) AS derniereCommande, " +
+            "SIZE(c.wishlist) AS produitsWishlist, " +
+            "SIZE(c.adresses) AS nombreAdresses " +
+            "FROM Client c LEFT JOIN c.commandes co WHERE c.idClient = :id GROUP BY c.idClient")
+    Optional<StatistiquesClient> findStatistiques(@Param("id") Long id);
+
+    interface StatistiquesClient {
+        Long getTotalCommandes();
+
+        Long getCommandesLivrees();
+
+        Long getCommandesEnCours();
+
+        BigDecimal getMontantTotalAchats();
+
+        LocalDateTime getDerniereCommande();
+
+        Integer getProduitsWishlist();
+
+        Integer getNombreAdresses();
+    }
+
+    /**
+     * (idClient, email) des clients existants parmi les identifiants donnés
+     */
+    @Query("SELECT c.idClient, c.email FROM Client c WHERE c.idClient IN :ids")
+    List<Object[]> findEmailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.actif = :actif WHERE c.idClient IN :ids")
+    int updateActifByIdIn(@Param("ids") Collection<Long> ids, @Param("actif") boolean actif);
+
+    // La désactivation révoque aussi les jetons : ils restent refusés si le compte est réactivé
+    @Modifying
+    @Query("UPDATE Client c SET c.actif = false, c.versionJeton = c.versionJeton + 1 WHERE c.idClient IN :ids")
+    int desactiverByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.versionJeton = c.versionJeton + 1 WHERE c.email = :email")
+    int revoquerJetons(@Param("email") String email);
+
+    // Hibernate vide aussi la table client_wishlist (collection d'éléments) avant ce DELETE
+    @Modifying
+    @Query("DELETE FROM Client c WHERE c.idClient IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -3,12 +3,15 @@ package com.froidcheikh.ecommerce.repository;
 import com.froidcheikh.ecommerce.entity.Commande;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +55,35 @@ public interface CommandeRepository extends JpaRepository<Commande, Long> {
      */
     Page<Commande> findByStatutCommandeOrderByDateCommandeDesc(Commande.StatutCommande statutCommande, Pageable pageable);
 
+    /**
+     * Pagination par curseur : (dateCommande, idCommande) décroissants, sans requête COUNT
+     */
+    @Query("SELECT c FROM Commande c ORDER BY c.dateCommande DESC, c.idCommande DESC")
+    Slice<Commande> findPremierePage(Pageable pageable);
+
+    @Query("SELECT c FROM Commande c WHERE " +
+            "c.dateCommande < :date OR (c.dateCommande = :date AND c.idCommande < :id) " +
+            "ORDER BY c.dateCommande DESC, c.idCommande DESC")
+    Slice<Commande> findApres(
+            @Param("date") LocalDateTime date,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT c FROM Commande c WHERE c.statutCommande = :statut " +
+            "ORDER BY c.dateCommande DESC, c.idCommande DESC")
+    Slice<Commande> findPremierePageByStatut(
+            @Param("statut") Commande.StatutCommande statut,
+            Pageable pageable);
+
+    @Query("SELECT c FROM Commande c WHERE c.statutCommande = :statut AND " +
+            "(c.dateCommande < :date OR (c.dateCommande = :date AND c.idCommande < :id)) " +
+            "ORDER BY c.dateCommande DESC, c.idCommande DESC")
+    Slice<Commande> findApresByStatut(
+            @Param("statut") Commande.StatutCommande statut,
+            @Param("date") LocalDateTime date,
+            @Param("id") Long id,
+            Pageable pageable);
+
     /**
      * Compter les commandes par statut
      */
@@ -101,13 +133,19 @@ public interface CommandeRepository extends JpaRepository<Commande, Long> {
     @Query("SELECT c.statutCommande, SUM(c.montantTotal) FROM Commande c GROUP BY c.statutCommande")
     List<Object[]> sumMontantTotalByStatut();
 
+    /**
+     * Statistiques : Nombre de commandes par statut
+     */
+    @Query("SELECT c.statutCommande, COUNT(c) FROM Commande c GROUP BY c.statutCommande")
+    List<Object[]> countByStatut();
+
     /**
      * Statistiques : Nombre de commandes par jour (derniers 30 jours)
      */
-    @Query(value = "SELECT DATE(c.date_commande) as jour, COUNT(*) as nombre " +
+    @Query(value = "SELECT CAST(c.date_commande AS DATE) as jour, COUNT(*) as nombre " +
             "FROM commandes c " +
-            "WHERE c.date_commande >= DATE_SUB(CURRENT_DATE, INTERVAL 30 DAY) " +
-            "GROUP BY DATE(c.date_commande) " +
+            "WHERE c.date_commande >= CURRENT_DATE - INTERVAL '30 days' " +
+            "GROUP BY CAST(c.date_commande AS DATE) " +
             "ORDER BY jour DESC", nativeQuery = true)
     List<Object[]> getCommandesParJour();
 
@@ -122,4 +160,33 @@ public interface CommandeRepository extends JpaRepository<Commande, Long> {
      */
     @Query("SELECT c FROM Commande c WHERE c.statutCommande IN ('EN_ATTENTE', 'CONFIRMEE') AND c.dateCommande < :dateLimit ORDER BY c.dateCommande ASC")
     List<Commande> findCommandesSansPaiement(@Param("dateLimit") LocalDateTime dateLimit);
-}
\ No newline at end of file
+
+    /**
+     * Clients, parmi ceux donnés, ayant au moins une commande dans l'un des statuts donnés
+     */
+    @Query("SELECT DISTINCT c.client.idClient FROM Commande c " +
+            "WHERE c.client.idClient IN :clientIds AND c.statutCommande IN :statuts")
+    List<Long> findClientIdsAvecStatut(@Param("clientIds") Collection<Long> clientIds,
+                                       @Param("statuts") Collection<Commande.StatutCommande> statuts);
+
+    /**
+     * (idCommande, idClient, dateCommande, statut) des commandes des clients donnés
+     */
+    @Query("SELECT c.idCommande, c.client.idClient, c.dateCommande, c.statutCommande FROM Commande c " +
+            "WHERE c.client.idClient IN :clientIds")
+    List<Object[]> findResumesByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+
+    @Modifying
+    @Query("DELETE FROM Paiement p WHERE p.commande.idCommande IN " +
+            "(SELECT c.idCommande FROM Commande c WHERE c.client.idClient IN :clientIds)")
+    int deletePaiementsByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+
+    @Modifying
+    @Query("DELETE FROM LigneCommande l WHERE l.commande.idCommande IN " +
+            "(SELECT c.idCommande FROM Commande c WHERE c.client.idClient IN :clientIds)")
+    int deleteLignesByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+
+    @Modifying
+    @Query("DELETE FROM Commande c WHERE c.client.idClient IN :clientIds")
+    int deleteByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+}
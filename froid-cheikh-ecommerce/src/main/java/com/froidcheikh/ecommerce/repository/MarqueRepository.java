@@ -16,6 +16,11 @@ public interface MarqueRepository extends JpaRepository<Marque, Long> {
     @Query("SELECT m FROM Marque m ORDER BY m.nomMarque")
     List<Marque> findAllOrderByName();
 
-    @Query("SELECT DISTINCT m FROM Marque m INNER JOIN m.produits p WHERE p.disponibilite = true")
-    List<Marque> findMarquesWithAvailableProducts();
+    /**
+     * (id, nom, logo, description) de toutes les marques, sans charger d'entité
+     */
+    @Query("SELECT m.idMarque, m.nomMarque, m.logo, m.description FROM Marque m")
+    List<Object[]> findAllResumes();
+
+    long countByLogo(String logo);
 }
\ No newline at end of file
@@ -3,12 +3,15 @@ package com.froidcheikh.ecommerce.repository;
 import com.froidcheikh.ecommerce.entity.Produit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,15 +20,22 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
 
     Optional<Produit> findByRefProduit(String refProduit);
 
+    @Query("SELECT p.idProduit FROM Produit p WHERE p.refProduit = :refProduit")
+    Optional<Long> findIdByRefProduit(@Param("refProduit") String refProduit);
+
     Optional<Produit> findByCodeProduit(String codeProduit);
 
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     Page<Produit> findByDisponibiliteTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     Page<Produit> findByCategorieIdCategorie(Long categorieId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     Page<Produit> findByMarqueIdMarque(Long marqueId, Pageable pageable);
 
     // SOLUTION 1: Requête JPA corrigée avec CAST explicite
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND " +
             "(:nomProduit IS NULL OR :nomProduit = '' OR LOWER(CAST(p.nomProduit AS string)) LIKE LOWER(CAST(CONCAT('%', :nomProduit, '%') AS string))) AND " +
             "(:prixMin IS NULL OR p.prix >= :prixMin) AND " +
@@ -91,6 +101,7 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
     );
 
     // SOLUTION 3: Requête simplifiée sans recherche textuelle (fallback)
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND " +
             "(:prixMin IS NULL OR p.prix >= :prixMin) AND " +
             "(:prixMax IS NULL OR p.prix <= :prixMax) AND " +
@@ -105,21 +116,92 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
     );
 
     // SOLUTION 4: Recherche textuelle séparée
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND " +
             "(LOWER(p.nomProduit) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(p.descriptionProduit) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     Page<Produit> findBySearchTerm(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     // Méthodes existantes conservées
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     List<Produit> findByStockDisponibleLessThan(Integer seuil);
 
+    // Identifiants seuls, pour la réconciliation des compteurs du tableau de bord
+    @Query("SELECT p.idProduit FROM Produit p")
+    List<Long> findAllIds();
+
+    @Query("SELECT p.idProduit FROM Produit p WHERE p.stockDisponible < :seuil")
+    List<Long> findIdsByStockDisponibleLessThan(@Param("seuil") Integer seuil);
+
+    /**
+     * (id, idCategorie) de chaque produit rattaché à une catégorie, pour l'arbre des catégories
+     */
+    @Query("SELECT p.idProduit, p.categorie.idCategorie FROM Produit p WHERE p.categorie IS NOT NULL")
+    List<Object[]> findCategoriesParProduit();
+
+    /**
+     * (id, idMarque, disponibilité) de chaque produit rattaché à une marque, pour le catalogue des marques
+     */
+    @Query("SELECT p.idProduit, p.marque.idMarque, p.disponibilite FROM Produit p WHERE p.marque IS NOT NULL")
+    List<Object[]> findEtatsParMarque();
+
+    /**
+     * Nombre de produits qui référencent un fichier uploadé (image, vidéo ou fiche technique)
+     */
+    @Query("SELECT COUNT(p) FROM Produit p WHERE p.ficheTechniquePDF = :chemin " +
+            "OR :chemin MEMBER OF p.listeImages OR :chemin MEMBER OF p.videosOptionnelles")
+    long countReferencesFichier(@Param("chemin") String chemin);
+
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p ORDER BY p.dateAjout DESC")
     Page<Produit> findLatestProducts(Pageable pageable);
 
+    // Pagination par curseur : (dateAjout, idProduit) décroissants, sans requête COUNT
+    @EntityGraph(attributePaths = {"categorie", "marque"})
+    @Query("SELECT p FROM Produit p WHERE p.disponibilite = true ORDER BY p.dateAjout DESC, p.idProduit DESC")
+    Slice<Produit> findDisponiblesPremierePage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"categorie", "marque"})
+    @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND " +
+            "(p.dateAjout < :date OR (p.dateAjout = :date AND p.idProduit < :id)) " +
+            "ORDER BY p.dateAjout DESC, p.idProduit DESC")
+    Slice<Produit> findDisponiblesApres(
+            @Param("date") LocalDateTime date,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"categorie", "marque"})
+    @Query("SELECT p FROM Produit p ORDER BY p.dateAjout DESC, p.idProduit DESC")
+    Slice<Produit> findLatestPremierePage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"categorie", "marque"})
+    @Query("SELECT p FROM Produit p WHERE " +
+            "p.dateAjout < :date OR (p.dateAjout = :date AND p.idProduit < :id) " +
+            "ORDER BY p.dateAjout DESC, p.idProduit DESC")
+    Slice<Produit> findLatestApres(
+            @Param("date") LocalDateTime date,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.idProduit IN :ids")
     List<Produit> findByIdIn(@Param("ids") List<Long> ids);
 
+    // Chargement complet pour la construction des index en mémoire
+    @Query("SELECT p FROM Produit p LEFT JOIN FETCH p.categorie LEFT JOIN FETCH p.marque")
+    List<Produit> findAllWithCategorieAndMarque();
+
+    // Produits d'une catégorie ou d'une marque renommée, à réindexer
+    @Query("SELECT p FROM Produit p LEFT JOIN FETCH p.categorie c LEFT JOIN FETCH p.marque WHERE c.idCategorie = :categorieId")
+    List<Produit> findByCategorieWithCategorieAndMarque(@Param("categorieId") Long categorieId);
+
+    @Query("SELECT p FROM Produit p LEFT JOIN FETCH p.categorie LEFT JOIN FETCH p.marque m WHERE m.idMarque = :marqueId")
+    List<Produit> findByMarqueWithCategorieAndMarque(@Param("marqueId") Long marqueId);
+
     // Nouvelles méthodes pour les catégories et marques avec filtres
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND p.categorie.idCategorie = :categorieId AND " +
             "(:prixMin IS NULL OR p.prix >= :prixMin) AND " +
             "(:prixMax IS NULL OR p.prix <= :prixMax)")
@@ -130,6 +212,7 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
             Pageable pageable
     );
 
+    @EntityGraph(attributePaths = {"categorie", "marque"})
     @Query("SELECT p FROM Produit p WHERE p.disponibilite = true AND p.marque.idMarque = :marqueId AND " +
             "(:prixMin IS NULL OR p.prix >= :prixMin) AND " +
             "(:prixMax IS NULL OR p.prix <= :prixMax)")
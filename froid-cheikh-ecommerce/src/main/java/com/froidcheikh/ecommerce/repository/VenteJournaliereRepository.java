@@ -0,0 +1,14 @@
+package com.froidcheikh.ecommerce.repository;
+
+import com.froidcheikh.ecommerce.entity.VenteJournaliere;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VenteJournaliereRepository extends JpaRepository<VenteJournaliere, LocalDate> {
+
+    List<VenteJournaliere> findByJourBetweenOrderByJourAsc(LocalDate debut, LocalDate fin);
+}
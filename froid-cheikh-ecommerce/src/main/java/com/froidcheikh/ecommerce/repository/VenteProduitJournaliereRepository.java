@@ -0,0 +1,28 @@
+package com.froidcheikh.ecommerce.repository;
+
+import com.froidcheikh.ecommerce.entity.VenteProduitJournaliere;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VenteProduitJournaliereRepository
+        extends JpaRepository<VenteProduitJournaliere, VenteProduitJournaliere.Cle> {
+
+    /**
+     * Produits les plus vendus sur la période : [idProduit, nom, ref, unités, chiffre d'affaires, commandes]
+     */
+    @Query("SELECT v.produitId, p.nomProduit, p.refProduit, SUM(v.unitesVendues), SUM(v.chiffreAffaires), SUM(v.nombreCommandes) " +
+            "FROM VenteProduitJournaliere v LEFT JOIN Produit p ON p.idProduit = v.produitId " +
+            "WHERE v.jour BETWEEN :debut AND :fin " +
+            "GROUP BY v.produitId, p.nomProduit, p.refProduit " +
+            "ORDER BY SUM(v.unitesVendues) DESC, SUM(v.chiffreAffaires) DESC")
+    List<Object[]> findProduitsPopulaires(@Param("debut") LocalDate debut,
+                                          @Param("fin") LocalDate fin,
+                                          Pageable pageable);
+}
@@ -3,70 +3,85 @@ package com.froidcheikh.ecommerce.security;
 import com.froidcheikh.ecommerce.config.JwtConfig;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_UID = "uid";
+    public static final String CLAIM_VERSION = "ver";
+
     private final JwtConfig jwtConfig;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+    // Clé HMAC et parser construits une seule fois : ils sont immuables et thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtTokenProvider(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtConfig.getExpiration());
-
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+        return construireToken((UserDetails) authentication.getPrincipal(), jwtConfig.getExpiration());
     }
 
     public String generateRefreshToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtConfig.getRefreshExpiration());
-
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+        return construireToken((UserDetails) authentication.getPrincipal(), jwtConfig.getRefreshExpiration());
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Vérifie la signature et l'expiration une seule fois et renvoie les claims ; vide si le jeton est invalide.
+     */
+    public Optional<Claims> lireClaims(String token) {
+        try {
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Token JWT invalide: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("Token JWT invalide: {}", e.getMessage());
-            return false;
+        return lireClaims(token).isPresent();
+    }
+
+    private String construireToken(UserDetails userPrincipal, long duree) {
+        Date maintenant = new Date();
+        UtilisateurJwt utilisateur = UtilisateurJwt.depuis(userPrincipal);
+        List<String> roles = utilisateur.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(utilisateur.getUsername())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_VERSION, utilisateur.getVersionJeton())
+                .setIssuedAt(maintenant)
+                .setExpiration(new Date(maintenant.getTime() + duree));
+
+        if (utilisateur.getIdUtilisateur() != null) {
+            builder.claim(CLAIM_UID, utilisateur.getIdUtilisateur());
         }
+
+        return builder.signWith(signingKey).compact();
     }
 }
\ No newline at end of file
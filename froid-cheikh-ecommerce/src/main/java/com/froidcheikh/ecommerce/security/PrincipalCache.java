@@ -0,0 +1,62 @@
+package com.froidcheikh.ecommerce.security;
+
+import com.froidcheikh.ecommerce.event.ClientModifieEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache des principaux authentifiés par email, utilisé par JwtAuthenticationFilter.
+ * L'état du compte (actif, version des jetons) vient de la base : une révocation faite sur une instance
+ * est vue par toutes les autres au plus tard à l'expiration de l'entrée (ttl-secondes), et survit aux redémarrages.
+ */
+@Component
+public class PrincipalCache {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final Cache<String, UtilisateurJwt> principaux;
+
+    public PrincipalCache(CustomUserDetailsService userDetailsService,
+                          @Value("${app.cache.principaux.taille-max:10000}") long tailleMax,
+                          @Value("${app.cache.principaux.ttl-secondes:60}") long ttlSecondes) {
+        this.userDetailsService = userDetailsService;
+        this.principaux = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(Duration.ofSeconds(ttlSecondes))
+                .build();
+    }
+
+    public UtilisateurJwt charger(String email) {
+        return principaux.get(email, cle -> UtilisateurJwt.depuis(userDetailsService.loadUserByUsername(cle)));
+    }
+
+    /**
+     * Principal du jeton, vide si le compte n'existe plus, est inactif ou a révoqué ses jetons depuis l'émission.
+     */
+    public Optional<UtilisateurJwt> authentifier(Claims claims) {
+        try {
+            return Optional.of(charger(claims.getSubject()))
+                    .filter(utilisateur -> utilisateur.accepte(claims));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void invalider(String email) {
+        if (email != null) {
+            principaux.invalidate(email);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientModifie(ClientModifieEvent event) {
+        invalider(event.email());
+    }
+}
@@ -0,0 +1,56 @@
+package com.froidcheikh.ecommerce.security;
+
+import com.froidcheikh.ecommerce.entity.Administrateur;
+import com.froidcheikh.ecommerce.entity.Client;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Instantané immuable (sans mot de passe) d'un compte authentifié : rôles, ID et version des jetons.
+ * Partagé entre les requêtes par PrincipalCache à la place de l'entité détachée.
+ */
+@Getter
+public class UtilisateurJwt extends User {
+
+    private final Long idUtilisateur;
+    private final long versionJeton;
+
+    public UtilisateurJwt(String email, Long idUtilisateur, long versionJeton, boolean actif,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", actif, true, true, actif, authorities);
+        this.idUtilisateur = idUtilisateur;
+        this.versionJeton = versionJeton;
+    }
+
+    public static UtilisateurJwt depuis(UserDetails source) {
+        if (source instanceof UtilisateurJwt utilisateur) {
+            return utilisateur;
+        }
+        Long id = null;
+        Long version = null;
+        if (source instanceof Client client) {
+            id = client.getIdClient();
+            version = client.getVersionJeton();
+        } else if (source instanceof Administrateur admin) {
+            id = admin.getIdAdmin();
+            version = admin.getVersionJeton();
+        }
+        return new UtilisateurJwt(source.getUsername(), id, version != null ? version : 0L,
+                source.isEnabled() && source.isAccountNonLocked(), source.getAuthorities());
+    }
+
+    /**
+     * Le jeton n'est accepté que si le compte est actif et que sa version des jetons n'a pas changé depuis l'émission.
+     * Un jeton sans version (émis avant son ajout) vaut pour la version 0.
+     */
+    public boolean accepte(Claims claims) {
+        Number version = claims.get(JwtTokenProvider.CLAIM_VERSION, Number.class);
+        return isEnabled() && isAccountNonLocked()
+                && (version != null ? version.longValue() : 0L) == versionJeton;
+    }
+}
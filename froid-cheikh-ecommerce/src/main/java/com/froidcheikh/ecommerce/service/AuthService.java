@@ -3,11 +3,17 @@ package com.froidcheikh.ecommerce.service;
 import com.froidcheikh.ecommerce.dto.AuthDTO;
 import com.froidcheikh.ecommerce.entity.Client;
 import com.froidcheikh.ecommerce.entity.Administrateur;
+import com.froidcheikh.ecommerce.event.ClientInscritEvent;
+import com.froidcheikh.ecommerce.event.ClientModifieEvent;
 import com.froidcheikh.ecommerce.repository.ClientRepository;
 import com.froidcheikh.ecommerce.repository.AdministrateurRepository;
+import com.froidcheikh.ecommerce.security.CustomUserDetailsService;
 import com.froidcheikh.ecommerce.security.JwtTokenProvider;
+import com.froidcheikh.ecommerce.security.UtilisateurJwt;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -24,9 +30,11 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final CustomUserDetailsService userDetailsService;
     private final ClientRepository clientRepository;
     private final AdministrateurRepository administrateurRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthDTO.AuthResponse login(AuthDTO.LoginRequest loginRequest) {
         log.info("🔍 Tentative de connexion pour: {}", loginRequest.getEmail());
@@ -104,6 +112,7 @@ public class AuthService {
         client.setActif(true);
 
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientInscritEvent(client.getIdClient()));
 
         // Authentifier automatiquement le nouveau client
         Authentication authentication = authenticationManager.authenticate(
@@ -138,15 +147,21 @@ public class AuthService {
     public AuthDTO.AuthResponse refreshToken(AuthDTO.RefreshTokenRequest refreshRequest) {
         String refreshToken = refreshRequest.getRefreshToken();
 
-        if (!tokenProvider.validateToken(refreshToken)) {
+        Claims claims = tokenProvider.lireClaims(refreshToken)
+                .orElseThrow(() -> new RuntimeException("Refresh token invalide"));
+        String username = claims.getSubject();
+
+        // Recharger l'utilisateur depuis la base (pas le cache) : les nouveaux jetons portent ses rôles,
+        // son ID et sa version des jetons à jour, et une révocation toute récente est prise en compte
+        UtilisateurJwt utilisateur = UtilisateurJwt.depuis(userDetailsService.loadUserByUsername(username));
+        if (!utilisateur.isEnabled()) {
+            throw new RuntimeException("Compte désactivé");
+        }
+        if (!utilisateur.accepte(claims)) {
             throw new RuntimeException("Refresh token invalide");
         }
-
-        String username = tokenProvider.getUsernameFromToken(refreshToken);
-
-        // Créer une nouvelle authentification
         Authentication authentication = new UsernamePasswordAuthenticationToken(
-                username, null, null
+                utilisateur, null, utilisateur.getAuthorities()
         );
 
         String newAccessToken = tokenProvider.generateToken(authentication);
@@ -163,6 +178,18 @@ public class AuthService {
         );
     }
 
+    /**
+     * Révoque tous les jetons déjà émis pour ce compte, client ou administrateur (déconnexion de tous les appareils).
+     */
+    public void revoquerSessions(String email) {
+        int comptes = clientRepository.revoquerJetons(email) + administrateurRepository.revoquerJetons(email);
+        if (comptes == 0) {
+            throw new RuntimeException("Utilisateur non trouvé");
+        }
+        eventPublisher.publishEvent(new ClientModifieEvent(email, true));
+        log.info("Sessions révoquées pour : {}", email);
+    }
+
     private AuthDTO.AuthResponse.UserInfo getUserInfo(String email) {
         // Vérifier d'abord dans les clients
         Client client = clientRepository.findByEmail(email).orElse(null);
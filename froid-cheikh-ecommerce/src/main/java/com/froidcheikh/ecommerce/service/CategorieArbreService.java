@@ -0,0 +1,183 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.dto.CategorieDTO;
+import com.froidcheikh.ecommerce.event.CategorieModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.repository.CategorieRepository;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Arbre des catégories du menu de la boutique, construit en mémoire avec le nombre de produits de chaque nœud.
+ * Rechargé entièrement (deux requêtes) au démarrage et après toute modification de catégorie ;
+ * les modifications de produit ne font qu'ajuster les compteurs, sans requête.
+ * Le nouvel arbre remplace l'ancien d'un seul coup ; ses DTO sont partagés entre les requêtes :
+ * ils ne doivent être que sérialisés, jamais modifiés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategorieArbreService {
+
+    private static final Comparator<CategorieDTO> PAR_NOM =
+            Comparator.comparing(CategorieDTO::getNomCategorie, String.CASE_INSENSITIVE_ORDER);
+
+    private final CategorieRepository categorieRepository;
+    private final ProduitRepository produitRepository;
+
+    // État de travail, protégé par le verrou de l'instance ; seul l'arbre publié est lu sans verrou
+    private final Map<Long, CategorieDTO> fiches = new HashMap<>();
+    private final Map<Long, Long> categoriesParProduit = new HashMap<>();
+    private final Map<Long, Long> compteurs = new HashMap<>();
+
+    private final AtomicReference<Arbre> arbre = new AtomicReference<>();
+
+    private record Arbre(List<CategorieDTO> toutes,
+                         List<CategorieDTO> racines,
+                         Map<Long, CategorieDTO> parId,
+                         Map<Long, List<CategorieDTO>> enfants) {
+    }
+
+    public List<CategorieDTO> getToutes() {
+        return arbre().toutes();
+    }
+
+    public List<CategorieDTO> getRacines() {
+        return arbre().racines();
+    }
+
+    public List<CategorieDTO> getSousCategories(Long parentId) {
+        return arbre().enfants().getOrDefault(parentId, List.of());
+    }
+
+    public long getNombreProduits(Long categorieId) {
+        CategorieDTO categorie = arbre().parId().get(categorieId);
+        return categorie != null ? categorie.getNombreProduits() : 0L;
+    }
+
+    public String getNom(Long categorieId) {
+        CategorieDTO categorie = arbre().parId().get(categorieId);
+        return categorie != null ? categorie.getNomCategorie() : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        reconstruire();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategorieModifiee(CategorieModifieeEvent event) {
+        reconstruire();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        appliquer(event.idProduit(), event.isSuppression() ? null : event.produit().categorieId());
+    }
+
+    public synchronized void reconstruire() {
+        long debut = System.currentTimeMillis();
+
+        fiches.clear();
+        categoriesParProduit.clear();
+        compteurs.clear();
+
+        for (Object[] ligne : categorieRepository.findAllResumes()) {
+            CategorieDTO fiche = new CategorieDTO();
+            fiche.setIdCategorie((Long) ligne[0]);
+            fiche.setNomCategorie((String) ligne[1]);
+            fiche.setDescriptionCategorie((String) ligne[2]);
+            fiche.setImageCategorie((String) ligne[3]);
+            fiche.setParentId((Long) ligne[4]);
+            fiche.setNomParent((String) ligne[5]);
+            fiches.put(fiche.getIdCategorie(), fiche);
+        }
+        for (Object[] ligne : produitRepository.findCategoriesParProduit()) {
+            categoriesParProduit.put((Long) ligne[0], (Long) ligne[1]);
+            compter((Long) ligne[1], 1);
+        }
+
+        publier();
+        log.debug("🌳 Arbre des catégories reconstruit : {} catégorie(s) en {} ms",
+                fiches.size(), System.currentTimeMillis() - debut);
+    }
+
+    // La catégorie reçue est absolue : rejouer un événement déjà pris en compte par une reconstruction ne change rien
+    private synchronized void appliquer(Long idProduit, Long categorieId) {
+        if (arbre.get() == null) {
+            reconstruire();
+            return;
+        }
+        Long ancienne = categorieId != null
+                ? categoriesParProduit.put(idProduit, categorieId)
+                : categoriesParProduit.remove(idProduit);
+        if (Objects.equals(ancienne, categorieId)) {
+            return;
+        }
+        compter(ancienne, -1);
+        compter(categorieId, 1);
+        publier();
+    }
+
+    private void compter(Long categorieId, int sens) {
+        if (categorieId != null) {
+            compteurs.merge(categorieId, (long) sens, Long::sum);
+        }
+    }
+
+    // Nouvelles copies des fiches à chaque publication : l'arbre déjà servi reste inchangé
+    private void publier() {
+        Map<Long, CategorieDTO> parId = new HashMap<>();
+        Map<Long, List<CategorieDTO>> enfants = new HashMap<>();
+        List<CategorieDTO> toutes = new ArrayList<>(fiches.size());
+        List<CategorieDTO> racines = new ArrayList<>();
+        for (CategorieDTO fiche : fiches.values()) {
+            CategorieDTO dto = new CategorieDTO(fiche.getIdCategorie(), fiche.getNomCategorie(),
+                    fiche.getDescriptionCategorie(), fiche.getImageCategorie(), fiche.getParentId(),
+                    fiche.getNomParent(), null, compteurs.getOrDefault(fiche.getIdCategorie(), 0L));
+
+            parId.put(dto.getIdCategorie(), dto);
+            toutes.add(dto);
+            if (dto.getParentId() == null) {
+                racines.add(dto);
+            } else {
+                enfants.computeIfAbsent(dto.getParentId(), id -> new ArrayList<>()).add(dto);
+            }
+        }
+
+        Map<Long, List<CategorieDTO>> enfantsTries = new HashMap<>();
+        enfants.forEach((parentId, liste) -> {
+            liste.sort(PAR_NOM);
+            enfantsTries.put(parentId, List.copyOf(liste));
+        });
+        for (CategorieDTO dto : toutes) {
+            dto.setSousCategories(enfantsTries.getOrDefault(dto.getIdCategorie(), List.of()));
+        }
+        toutes.sort(PAR_NOM);
+        racines.sort(PAR_NOM);
+
+        arbre.set(new Arbre(List.copyOf(toutes), List.copyOf(racines), Map.copyOf(parId), Map.copyOf(enfantsTries)));
+    }
+
+    private Arbre arbre() {
+        Arbre courant = arbre.get();
+        if (courant == null) {
+            reconstruire();
+            courant = arbre.get();
+        }
+        return courant;
+    }
+}
@@ -2,16 +2,19 @@ package com.froidcheikh.ecommerce.service;
 
 import com.froidcheikh.ecommerce.dto.CategorieDTO;
 import com.froidcheikh.ecommerce.entity.Categorie;
+import com.froidcheikh.ecommerce.event.CategorieModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
 import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.froidcheikh.ecommerce.mapper.CategorieMapper;
 import com.froidcheikh.ecommerce.repository.CategorieRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,20 +23,17 @@ import java.util.stream.Collectors;
 public class CategorieService {
 
     private final CategorieRepository categorieRepository;
-    private final ModelMapper modelMapper;
+    private final CategorieMapper categorieMapper;
+    private final CategorieArbreService categorieArbreService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Les lectures du menu sont servies par l'arbre en mémoire, sans requête
     public List<CategorieDTO> getAllCategories() {
-        return categorieRepository.findAllOrderByName()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return categorieArbreService.getToutes();
     }
 
     public List<CategorieDTO> getCategoriesTree() {
-        return categorieRepository.findRootCategoriesWithSubCategories()
-                .stream()
-                .map(this::convertToDTOWithSubCategories)
-                .collect(Collectors.toList());
+        return categorieArbreService.getRacines();
     }
 
     public CategorieDTO getCategorieById(Long id) {
@@ -43,15 +43,13 @@ public class CategorieService {
     }
 
     public List<CategorieDTO> getSousCategories(Long parentId) {
-        return categorieRepository.findByParentIdCategorie(parentId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return categorieArbreService.getSousCategories(parentId);
     }
 
     public CategorieDTO createCategorie(CategorieDTO categorieDTO) {
         Categorie categorie = convertToEntity(categorieDTO);
         categorie = categorieRepository.save(categorie);
+        eventPublisher.publishEvent(new CategorieModifieeEvent(categorie.getIdCategorie()));
         log.info("Catégorie créée avec l'ID : {}", categorie.getIdCategorie());
         return convertToDTO(categorie);
     }
@@ -70,49 +68,40 @@ public class CategorieService {
         }
 
         categorie = categorieRepository.save(categorie);
+        eventPublisher.publishEvent(new CategorieModifieeEvent(categorie.getIdCategorie()));
         log.info("Catégorie mise à jour avec l'ID : {}", categorie.getIdCategorie());
 
         return convertToDTO(categorie);
     }
 
     public void deleteCategorie(Long id) {
-        if (!categorieRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Catégorie non trouvée avec l'ID : " + id);
-        }
-        categorieRepository.deleteById(id);
-        log.info("Catégorie supprimée avec l'ID : {}", id);
-    }
-
-    private CategorieDTO convertToDTO(Categorie categorie) {
-        CategorieDTO dto = modelMapper.map(categorie, CategorieDTO.class);
-
-        if (categorie.getParent() != null) {
-            dto.setParentId(categorie.getParent().getIdCategorie());
-            dto.setNomParent(categorie.getParent().getNomCategorie());
-        }
+        Categorie categorie = categorieRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'ID : " + id));
 
-        if (categorie.getProduits() != null) {
-            dto.setNombreProduits((long) categorie.getProduits().size());
-        }
+        // Les produits de la catégorie et de ses sous-catégories sont supprimés en cascade :
+        // les index en mémoire (recherche, facettes, cache) doivent les oublier aussi
+        List<Long> produitsSupprimes = new ArrayList<>();
+        collecterProduits(categorie, produitsSupprimes);
 
-        return dto;
+        categorieRepository.delete(categorie);
+        produitsSupprimes.forEach(idProduit -> eventPublisher.publishEvent(ProduitModifieEvent.supprime(idProduit)));
+        eventPublisher.publishEvent(new CategorieModifieeEvent(id));
+        log.info("Catégorie supprimée avec l'ID : {}", id);
     }
 
-    private CategorieDTO convertToDTOWithSubCategories(Categorie categorie) {
-        CategorieDTO dto = convertToDTO(categorie);
-
-        if (categorie.getSousCategories() != null) {
-            dto.setSousCategories(categorie.getSousCategories()
-                    .stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList()));
-        }
+    private static void collecterProduits(Categorie categorie, List<Long> ids) {
+        categorie.getProduits().forEach(produit -> ids.add(produit.getIdProduit()));
+        categorie.getSousCategories().forEach(sousCategorie -> collecterProduits(sousCategorie, ids));
+    }
 
+    private CategorieDTO convertToDTO(Categorie categorie) {
+        CategorieDTO dto = categorieMapper.toDTO(categorie);
+        dto.setNombreProduits(categorieArbreService.getNombreProduits(categorie.getIdCategorie()));
         return dto;
     }
 
     private Categorie convertToEntity(CategorieDTO dto) {
-        Categorie categorie = modelMapper.map(dto, Categorie.class);
+        Categorie categorie = categorieMapper.toEntity(dto);
 
         if (dto.getParentId() != null) {
             Categorie parent = categorieRepository.findById(dto.getParentId()).orElse(null);
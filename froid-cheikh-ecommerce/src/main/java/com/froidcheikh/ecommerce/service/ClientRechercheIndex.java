@@ -0,0 +1,70 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.entity.Client;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Prépare la recherche de clients au démarrage : index trigramme (pg_trgm) sur la colonne normalisée
+ * clients.recherche, qui sert les LIKE '%...%' de ClientRepository.searchClients sans balayer la table,
+ * puis calcul de cette colonne pour les clients enregistrés avant son introduction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClientRechercheIndex {
+
+    public static final String SQL_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    public static final String SQL_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_clients_recherche_trgm ON clients USING gin (recherche gin_trgm_ops)";
+
+    private static final int TAILLE_LOT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        creerIndex();
+        renseignerColonne();
+    }
+
+    private void creerIndex() {
+        try {
+            jdbcTemplate.execute(SQL_EXTENSION);
+            jdbcTemplate.execute(SQL_INDEX);
+        } catch (DataAccessException e) {
+            // Extension non installée ou droits insuffisants : la recherche reste correcte mais balaie la table
+            log.warn("⚠️ Index trigramme de recherche des clients non créé : {}", e.getMessage());
+        }
+    }
+
+    private void renseignerColonne() {
+        long debut = System.currentTimeMillis();
+        int total = 0;
+        List<Object[]> lot;
+        do {
+            lot = jdbcTemplate.query(
+                    "SELECT id_client, nom, prenom, email, telephone FROM clients WHERE recherche IS NULL LIMIT " + TAILLE_LOT,
+                    (rs, i) -> new Object[]{
+                            Client.cleRecherche(rs.getString("nom"), rs.getString("prenom"),
+                                    rs.getString("email"), rs.getString("telephone")),
+                            rs.getLong("id_client")});
+            if (!lot.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE clients SET recherche = ? WHERE id_client = ?", lot);
+                total += lot.size();
+            }
+        } while (lot.size() == TAILLE_LOT);
+
+        if (total > 0) {
+            log.info("🔎 Clé de recherche calculée pour {} client(s) en {} ms", total, System.currentTimeMillis() - debut);
+        }
+    }
+}
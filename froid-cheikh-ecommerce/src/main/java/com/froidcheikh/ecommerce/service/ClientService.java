@@ -6,12 +6,19 @@ import com.froidcheikh.ecommerce.dto.ClientDTO;
 import com.froidcheikh.ecommerce.entity.Client;
 import com.froidcheikh.ecommerce.entity.Adresse;
 import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.event.ClientInscritEvent;
+import com.froidcheikh.ecommerce.event.ClientModifieEvent;
+import com.froidcheikh.ecommerce.event.ClientSupprimeEvent;
+import com.froidcheikh.ecommerce.event.CommandeStatutModifieEvent;
 import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.froidcheikh.ecommerce.mapper.ClientMapper;
 import com.froidcheikh.ecommerce.repository.ClientRepository;
 import com.froidcheikh.ecommerce.repository.AdresseRepository;
+import com.froidcheikh.ecommerce.repository.CommandeRepository;
+import com.froidcheikh.ecommerce.util.TexteUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,10 +27,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,10 +43,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class ClientService {
 
+    // Taille des tranches d'identifiants des actions en lot (borne la taille des clauses IN)
+    private static final int TAILLE_LOT = 500;
+
+    private static final List<Commande.StatutCommande> STATUTS_EN_COURS = List.of(
+            Commande.StatutCommande.EN_ATTENTE,
+            Commande.StatutCommande.CONFIRMEE,
+            Commande.StatutCommande.PAYEE,
+            Commande.StatutCommande.EN_PREPARATION,
+            Commande.StatutCommande.EXPEDIE);
+
     private final ClientRepository clientRepository;
     private final AdresseRepository adresseRepository;
-    private final ModelMapper modelMapper;
+    private final CommandeRepository commandeRepository;
+    private final ClientMapper clientMapper;
     private final PasswordEncoder passwordEncoder;
+    private final ClientStatistiquesCache statistiquesCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ClientDTO getClientById(Long id) {
         Client client = clientRepository.findById(id)
@@ -57,6 +81,7 @@ public class ClientService {
 
         Client client = convertToEntity(clientDTO);
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientInscritEvent(client.getIdClient()));
 
         log.info("Client créé avec l'ID : {}", client.getIdClient());
         return convertToDTO(client);
@@ -72,6 +97,7 @@ public class ClientService {
             throw new RuntimeException("Un client avec cet email existe déjà");
         }
 
+        String ancienEmail = client.getEmail();
         client.setNom(clientDTO.getNom());
         client.setPrenom(clientDTO.getPrenom());
         client.setEmail(clientDTO.getEmail());
@@ -79,7 +105,12 @@ public class ClientService {
         client.setDateNaissance(clientDTO.getDateNaissance());
         client.setGenre(clientDTO.getGenre());
 
+        boolean revoquer = !ancienEmail.equals(client.getEmail());
+        if (revoquer) {
+            client.revoquerJetons();
+        }
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientModifieEvent(ancienEmail, revoquer));
         log.info("Client mis à jour avec l'ID : {}", client.getIdClient());
 
         return convertToDTO(client);
@@ -90,7 +121,9 @@ public class ClientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
 
         client.setMotDePasse(passwordEncoder.encode(nouveauMotDePasse));
+        client.revoquerJetons();
         clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientModifieEvent(client.getEmail(), true));
 
         log.info("Mot de passe mis à jour pour le client : {}", clientId);
     }
@@ -101,6 +134,7 @@ public class ClientService {
 
         client.setActif(true);
         clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientModifieEvent(client.getEmail(), false));
 
         log.info("Client activé : {}", clientId);
     }
@@ -110,7 +144,9 @@ public class ClientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
 
         client.setActif(false);
+        client.revoquerJetons();
         clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientModifieEvent(client.getEmail(), true));
 
         log.info("Client désactivé : {}", clientId);
     }
@@ -133,6 +169,7 @@ public class ClientService {
         }
 
         adresse = adresseRepository.save(adresse);
+        statistiquesCache.invalider(clientId);
         log.info("Adresse ajoutée pour le client : {}", clientId);
 
         return convertToAdresseDTO(adresse);
@@ -182,6 +219,7 @@ public class ClientService {
         }
 
         adresseRepository.deleteById(adresseId);
+        statistiquesCache.invalider(clientId);
         log.info("Adresse supprimée : {}", adresseId);
     }
 
@@ -194,42 +232,36 @@ public class ClientService {
 
     // Gestion de la wishlist
     public void ajouterAWishlist(Long clientId, Long produitId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
+        verifierClientExiste(clientId);
 
-        if (!client.getWishlist().contains(produitId)) {
-            client.getWishlist().add(produitId);
-            clientRepository.save(client);
+        if (clientRepository.ajouterAWishlist(clientId, produitId) > 0) {
+            statistiquesCache.invalider(clientId);
             log.info("Produit {} ajouté à la wishlist du client {}", produitId, clientId);
         }
     }
 
     public void retirerDeWishlist(Long clientId, Long produitId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
+        verifierClientExiste(clientId);
 
-        client.getWishlist().remove(produitId);
-        clientRepository.save(client);
-        log.info("Produit {} retiré de la wishlist du client {}", produitId, clientId);
+        if (clientRepository.retirerDeWishlist(clientId, produitId) > 0) {
+            statistiquesCache.invalider(clientId);
+            log.info("Produit {} retiré de la wishlist du client {}", produitId, clientId);
+        }
     }
 
     public List<Long> getWishlist(Long clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
-
-        return client.getWishlist();
+        verifierClientExiste(clientId);
+        return clientRepository.findWishlist(clientId);
     }
 
-    private ClientDTO convertToDTO(Client client) {
-        ClientDTO dto = modelMapper.map(client, ClientDTO.class);
-
-        if (client.getAdresses() != null) {
-            dto.setAdresses(client.getAdresses().stream()
-                    .map(this::convertToAdresseDTO)
-                    .collect(Collectors.toList()));
+    private void verifierClientExiste(Long clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId);
         }
+    }
 
-        return dto;
+    private ClientDTO convertToDTO(Client client) {
+        return clientMapper.toDTO(client);
     }
 
 
@@ -244,6 +276,7 @@ public class ClientService {
 
         Client client = convertToEntity(registerRequest);
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientInscritEvent(client.getIdClient()));
 
         log.info("Client enregistré (inscription) avec l'ID : {}", client.getIdClient());
         return convertToDTO(client);
@@ -256,18 +289,19 @@ public class ClientService {
         }
         Client client = convertToEntity(clientDTO);
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientInscritEvent(client.getIdClient()));
         log.info("Client créé avec l'ID : {}", client.getIdClient());
         return convertToDTO(client);
     }
 
     // Conversion ClientDTO -> Client (sans encodage de mot de passe)
     private Client convertToEntity(ClientDTO dto) {
-        return modelMapper.map(dto, Client.class);
+        return clientMapper.toEntity(dto);
     }
 
     // Conversion RegisterRequest -> Client (ici on encode le mot de passe)
     private Client convertToEntity(AuthDTO.RegisterRequest registerRequest) {
-        Client client = modelMapper.map(registerRequest, Client.class);
+        Client client = clientMapper.toEntity(registerRequest);
         client.setMotDePasse(passwordEncoder.encode(registerRequest.getMotDePasse()));
         // définir d'éventuelles valeurs par défaut (actif, rôle, etc.)
         return client;
@@ -275,11 +309,11 @@ public class ClientService {
 
 
     private ClientDTO.AdresseDTO convertToAdresseDTO(Adresse adresse) {
-        return modelMapper.map(adresse, ClientDTO.AdresseDTO.class);
+        return clientMapper.toAdresseDTO(adresse);
     }
 
     private Adresse convertToAdresseEntity(ClientDTO.AdresseDTO dto) {
-        return modelMapper.map(dto, Adresse.class);
+        return clientMapper.toAdresseEntity(dto);
     }
 
     public Page<ClientDTO> getAllClients(Pageable pageable) {
@@ -288,24 +322,20 @@ public class ClientService {
     }
 
     public List<ClientDTO> searchClients(String searchTerm) {
-        // Implémentation de la recherche de clients
-        return clientRepository.findAll()
-                .stream()
-                .filter(client ->
-                        client.getNom().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                client.getPrenom().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                client.getEmail().toLowerCase().contains(searchTerm.toLowerCase())
-                )
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return searchClients(searchTerm, Pageable.unpaged()).getContent();
     }
 
     // ==================== MÉTHODES POUR L'ADMINISTRATION ====================
 
 
 
+    // Recherche insensible à la casse et aux accents sur nom, prénom, email et téléphone
     public Page<ClientDTO> searchClients(String searchTerm, Pageable pageable) {
-        Page<Client> clients = clientRepository.searchClients(searchTerm, pageable);
+        String motif = TexteUtils.motifContient(searchTerm);
+        if (motif == null) {
+            return getAllClients(pageable);
+        }
+        Page<Client> clients = clientRepository.searchClients(motif, pageable);
         return clients.map(this::convertToDTO);
     }
 
@@ -326,6 +356,7 @@ public class ClientService {
         client.setActif(request.getActif());
 
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientInscritEvent(client.getIdClient()));
         log.info("Client créé par admin avec l'ID : {}", client.getIdClient());
 
         return convertToDTO(client);
@@ -341,6 +372,7 @@ public class ClientService {
             throw new RuntimeException("Un client avec cet email existe déjà");
         }
 
+        String ancienEmail = client.getEmail();
         client.setNom(request.getNom());
         client.setPrenom(request.getPrenom());
         client.setEmail(request.getEmail());
@@ -349,160 +381,211 @@ public class ClientService {
         client.setGenre(request.getGenre());
         client.setActif(request.getActif());
 
+        boolean revoquer = !ancienEmail.equals(client.getEmail()) || !Boolean.TRUE.equals(client.getActif());
+        if (revoquer) {
+            client.revoquerJetons();
+        }
         client = clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientModifieEvent(ancienEmail, revoquer));
         log.info("Client mis à jour par admin avec l'ID : {}", client.getIdClient());
 
         return convertToDTO(client);
     }
 
     public void deleteClient(Long clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
+        Map<Long, String> client = chargerEmails(List.of(clientId));
+        if (client.isEmpty()) {
+            throw new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId);
+        }
 
         // Vérifier s'il a des commandes en cours
-        boolean hasActiveOrders = client.getCommandes() != null &&
-                client.getCommandes().stream()
-                        .anyMatch(commande ->
-                                commande.getStatutCommande() == Commande.StatutCommande.EN_ATTENTE ||
-                                        commande.getStatutCommande() == Commande.StatutCommande.CONFIRMEE ||
-                                        commande.getStatutCommande() == Commande.StatutCommande.PAYEE ||
-                                        commande.getStatutCommande() == Commande.StatutCommande.EN_PREPARATION ||
-                                        commande.getStatutCommande() == Commande.StatutCommande.EXPEDIE);
-
-        if (hasActiveOrders) {
+        if (!commandeRepository.findClientIdsAvecStatut(client.keySet(), STATUTS_EN_COURS).isEmpty()) {
             throw new RuntimeException("Impossible de supprimer un client avec des commandes en cours");
         }
 
-        clientRepository.deleteById(clientId);
+        supprimerDefinitivement(client);
         log.info("Client supprimé avec l'ID : {}", clientId);
     }
 
     public Map<String, Object> getClientStatistics(Long clientId) {
-        Client client = clientRepository.findByIdWithCommandes(clientId)
+        return statistiquesCache.get(clientId, this::calculerStatistiques);
+    }
+
+    // Compteurs, montants et dernière commande calculés par une seule requête d'agrégation
+    private Map<String, Object> calculerStatistiques(Long clientId) {
+        ClientRepository.StatistiquesClient statistiques = clientRepository.findStatistiques(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Client non trouvé avec l'ID : " + clientId));
 
         Map<String, Object> stats = new HashMap<>();
 
         // Statistiques des commandes
-        List<Commande> commandes = client.getCommandes();
-        if (commandes != null) {
-            stats.put("totalCommandes", commandes.size());
-            stats.put("commandesLivrees", commandes.stream()
-                    .filter(c -> c.getStatutCommande() == Commande.StatutCommande.LIVREE)
-                    .count());
-            stats.put("commandesEnCours", commandes.stream()
-                    .filter(c -> c.getStatutCommande() != Commande.StatutCommande.LIVREE &&
-                            c.getStatutCommande() != Commande.StatutCommande.ANNULEE)
-                    .count());
-
-            // Montant total des achats
-            BigDecimal montantTotal = commandes.stream()
-                    .filter(c -> c.getStatutCommande() == Commande.StatutCommande.LIVREE)
-                    .map(Commande::getMontantTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            stats.put("montantTotalAchats", montantTotal);
-
-            // Panier moyen
-            long commandesLivrees = (Long) stats.get("commandesLivrees");
-            if (commandesLivrees > 0) {
-                stats.put("panierMoyen", montantTotal.divide(BigDecimal.valueOf(commandesLivrees), 2, RoundingMode.HALF_UP));
-            } else {
-                stats.put("panierMoyen", BigDecimal.ZERO);
-            }
-
-            // Dernière commande
-            Optional<Commande> derniereCommande = commandes.stream()
-                    .max((c1, c2) -> c1.getDateCommande().compareTo(c2.getDateCommande()));
-            if (derniereCommande.isPresent()) {
-                stats.put("derniereCommande", derniereCommande.get().getDateCommande());
-            }
+        stats.put("totalCommandes", statistiques.getTotalCommandes());
+        stats.put("commandesLivrees", statistiques.getCommandesLivrees());
+        stats.put("commandesEnCours", statistiques.getCommandesEnCours());
+
+        // Montant total des achats
+        BigDecimal montantTotal = statistiques.getMontantTotalAchats();
+        stats.put("montantTotalAchats", montantTotal);
+
+        // Panier moyen
+        long commandesLivrees = statistiques.getCommandesLivrees();
+        if (commandesLivrees > 0) {
+            stats.put("panierMoyen", montantTotal.divide(BigDecimal.valueOf(commandesLivrees), 2, RoundingMode.HALF_UP));
         } else {
-            stats.put("totalCommandes", 0);
-            stats.put("commandesLivrees", 0);
-            stats.put("commandesEnCours", 0);
-            stats.put("montantTotalAchats", BigDecimal.ZERO);
             stats.put("panierMoyen", BigDecimal.ZERO);
         }
 
+        // Dernière commande
+        if (statistiques.getDerniereCommande() != null) {
+            stats.put("derniereCommande", statistiques.getDerniereCommande());
+        }
+
         // Wishlist
-        stats.put("produitsWishlist", client.getWishlist() != null ? client.getWishlist().size() : 0);
+        stats.put("produitsWishlist", statistiques.getProduitsWishlist());
 
         // Adresses
-        stats.put("nombreAdresses", client.getAdresses() != null ? client.getAdresses().size() : 0);
+        stats.put("nombreAdresses", statistiques.getNombreAdresses());
 
-        return stats;
+        return Map.copyOf(stats);
     }
 
-    // Actions en lot
+    // Actions en lot : une requête ensembliste par tranche de TAILLE_LOT identifiants
     public Map<String, Object> batchActivateClients(List<Long> clientIds) {
-        Map<String, Object> result = new HashMap<>();
         int success = 0;
         int errors = 0;
 
-        for (Long clientId : clientIds) {
-            try {
-                activerClient(clientId);
+        for (List<Long> lot : decouper(clientIds)) {
+            Map<Long, String> emails = chargerEmails(lot);
+            if (!emails.isEmpty()) {
+                clientRepository.updateActifByIdIn(emails.keySet(), true);
+            }
+
+            for (Long clientId : lot) {
+                String email = emails.get(clientId);
+                if (email == null) {
+                    errors++;
+                    log.error("Erreur lors de l'activation du client {}: Client non trouvé avec l'ID : {}", clientId, clientId);
+                    continue;
+                }
                 success++;
-            } catch (Exception e) {
-                errors++;
-                log.error("Erreur lors de l'activation du client {}: {}", clientId, e.getMessage());
+                eventPublisher.publishEvent(new ClientModifieEvent(email, false));
             }
         }
 
-        result.put("success", success);
-        result.put("errors", errors);
-        result.put("total", clientIds.size());
-
         log.info("Activation en lot terminée: {} succès, {} erreurs sur {} clients", success, errors, clientIds.size());
 
-        return result;
+        return resultatLot(success, errors, clientIds.size());
     }
 
     public Map<String, Object> batchDeactivateClients(List<Long> clientIds) {
-        Map<String, Object> result = new HashMap<>();
         int success = 0;
         int errors = 0;
 
-        for (Long clientId : clientIds) {
-            try {
-                desactiverClient(clientId);
+        for (List<Long> lot : decouper(clientIds)) {
+            Map<Long, String> emails = chargerEmails(lot);
+            if (!emails.isEmpty()) {
+                clientRepository.desactiverByIdIn(emails.keySet());
+            }
+
+            for (Long clientId : lot) {
+                String email = emails.get(clientId);
+                if (email == null) {
+                    errors++;
+                    log.error("Erreur lors de la désactivation du client {}: Client non trouvé avec l'ID : {}", clientId, clientId);
+                    continue;
+                }
                 success++;
-            } catch (Exception e) {
-                errors++;
-                log.error("Erreur lors de la désactivation du client {}: {}", clientId, e.getMessage());
+                eventPublisher.publishEvent(new ClientModifieEvent(email, true));
             }
         }
 
-        result.put("success", success);
-        result.put("errors", errors);
-        result.put("total", clientIds.size());
-
         log.info("Désactivation en lot terminée: {} succès, {} erreurs sur {} clients", success, errors, clientIds.size());
 
-        return result;
+        return resultatLot(success, errors, clientIds.size());
     }
 
     public Map<String, Object> batchDeleteClients(List<Long> clientIds) {
-        Map<String, Object> result = new HashMap<>();
         int success = 0;
         int errors = 0;
 
-        for (Long clientId : clientIds) {
-            try {
-                deleteClient(clientId);
-                success++;
-            } catch (Exception e) {
+        for (List<Long> lot : decouper(clientIds)) {
+            Map<Long, String> aSupprimer = chargerEmails(lot);
+            Set<Long> avecCommandesEnCours = aSupprimer.isEmpty() ? Set.of()
+                    : new HashSet<>(commandeRepository.findClientIdsAvecStatut(aSupprimer.keySet(), STATUTS_EN_COURS));
+            aSupprimer.keySet().removeAll(avecCommandesEnCours);
+
+            supprimerDefinitivement(aSupprimer);
+
+            // Un identifiant répété n'est supprimé qu'une fois : les suivants sont introuvables, comme avant
+            Set<Long> supprimes = new HashSet<>();
+            for (Long clientId : lot) {
+                if (aSupprimer.containsKey(clientId) && supprimes.add(clientId)) {
+                    success++;
+                    continue;
+                }
                 errors++;
-                log.error("Erreur lors de la suppression du client {}: {}", clientId, e.getMessage());
+                String raison = avecCommandesEnCours.contains(clientId)
+                        ? "Impossible de supprimer un client avec des commandes en cours"
+                        : "Client non trouvé avec l'ID : " + clientId;
+                log.error("Erreur lors de la suppression du client {}: {}", clientId, raison);
             }
         }
 
-        result.put("success", success);
-        result.put("errors", errors);
-        result.put("total", clientIds.size());
-
         log.info("Suppression en lot terminée: {} succès, {} erreurs sur {} clients", success, errors, clientIds.size());
 
+        return resultatLot(success, errors, clientIds.size());
+    }
+
+    /**
+     * Supprime les clients et tout ce que l'entité Client supprimait en cascade (commandes, lignes, paiements,
+     * adresses, wishlist) par des DELETE ensemblistes, enfants d'abord, sans charger les collections.
+     */
+    private void supprimerDefinitivement(Map<Long, String> clients) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = clients.keySet();
+        List<Object[]> commandes = commandeRepository.findResumesByClientIdIn(ids);
+
+        commandeRepository.deletePaiementsByClientIdIn(ids);
+        commandeRepository.deleteLignesByClientIdIn(ids);
+        commandeRepository.deleteByClientIdIn(ids);
+        adresseRepository.deleteByClientIdIn(ids);
+        clientRepository.deleteByIdIn(ids);
+
+        for (Object[] commande : commandes) {
+            eventPublisher.publishEvent(new CommandeStatutModifieEvent((Long) commande[0], (Long) commande[1],
+                    (LocalDateTime) commande[2], (Commande.StatutCommande) commande[3], null));
+        }
+        clients.forEach((id, email) -> {
+            eventPublisher.publishEvent(new ClientModifieEvent(email, true));
+            eventPublisher.publishEvent(new ClientSupprimeEvent(id));
+        });
+    }
+
+    // idClient -> email des clients existants parmi les identifiants donnés
+    private Map<Long, String> chargerEmails(List<Long> clientIds) {
+        Set<Long> ids = clientIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, String> emails = new HashMap<>();
+        if (!ids.isEmpty()) {
+            clientRepository.findEmailsByIdIn(ids).forEach(ligne -> emails.put((Long) ligne[0], (String) ligne[1]));
+        }
+        return emails;
+    }
+
+    private static List<List<Long>> decouper(List<Long> clientIds) {
+        List<List<Long>> lots = new ArrayList<>();
+        for (int debut = 0; debut < clientIds.size(); debut += TAILLE_LOT) {
+            lots.add(clientIds.subList(debut, Math.min(debut + TAILLE_LOT, clientIds.size())));
+        }
+        return lots;
+    }
+
+    private static Map<String, Object> resultatLot(int success, int errors, int total) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", success);
+        result.put("errors", errors);
+        result.put("total", total);
         return result;
     }
-}
\ No newline at end of file
+}
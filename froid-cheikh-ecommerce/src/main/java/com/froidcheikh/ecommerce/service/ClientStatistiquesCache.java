@@ -0,0 +1,59 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.event.ClientSupprimeEvent;
+import com.froidcheikh.ecommerce.event.CommandeCreeeEvent;
+import com.froidcheikh.ecommerce.event.CommandeStatutModifieEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache des statistiques par client affichées sur la fiche client de l'administration.
+ * Une entrée est invalidée après le commit de toute création ou changement de statut d'une commande du client,
+ * et par ClientService quand sa wishlist ou ses adresses changent ; le TTL borne le reste.
+ */
+@Component
+public class ClientStatistiquesCache {
+
+    private final Cache<Long, Map<String, Object>> statistiques;
+
+    public ClientStatistiquesCache(@Value("${app.cache.statistiques-clients.taille-max:10000}") long tailleMax,
+                                   @Value("${app.cache.statistiques-clients.ttl-minutes:10}") long ttlMinutes) {
+        this.statistiques = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    // Les valeurs calculées doivent être immuables : elles sont partagées entre les requêtes
+    public Map<String, Object> get(Long clientId, Function<Long, Map<String, Object>> calcul) {
+        return statistiques.get(clientId, calcul);
+    }
+
+    public void invalider(Long clientId) {
+        if (clientId != null) {
+            statistiques.invalidate(clientId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeCreee(CommandeCreeeEvent event) {
+        invalider(event.idClient());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeStatutModifie(CommandeStatutModifieEvent event) {
+        invalider(event.idClient());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientSupprime(ClientSupprimeEvent event) {
+        invalider(event.idClient());
+    }
+}
@@ -1,22 +1,32 @@
 package com.froidcheikh.ecommerce.service;
 
 import com.froidcheikh.ecommerce.dto.CommandeDTO;
+import com.froidcheikh.ecommerce.dto.PageCurseurDTO;
 import com.froidcheikh.ecommerce.entity.*;
+import com.froidcheikh.ecommerce.event.CommandeCreeeEvent;
+import com.froidcheikh.ecommerce.event.CommandeStatutModifieEvent;
 import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.froidcheikh.ecommerce.mapper.CommandeMapper;
 import com.froidcheikh.ecommerce.repository.*;
+import com.froidcheikh.ecommerce.util.Curseur;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,8 +39,10 @@ public class CommandeService {
     private final ClientRepository clientRepository;
     private final ProduitRepository produitRepository;
     private final PaiementRepository paiementRepository;
-    private final ProduitService produitService;
-    private final ModelMapper modelMapper;
+    private final StockReservationService stockReservationService;
+    private final IdentifiantService identifiantService;
+    private final CommandeMapper commandeMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CommandeDTO getCommandeById(Long id) {
         Commande commande = commandeRepository.findByIdWithLignes(id)
@@ -68,16 +80,27 @@ public class CommandeService {
         try {
             log.info("🔧 === DÉBUT CRÉATION COMMANDE DANS creerCommande ===");
 
-            // ✅ ÉTAPE 1 : Vérifier la disponibilité des produits
+            // ✅ ÉTAPE 1 : Charger tous les produits de la commande en une seule requête
+            Map<Long, Integer> quantites = new HashMap<>();
             for (CommandeDTO.LigneCommandeDTO ligneDTO : commandeDTO.getLignesCommande()) {
-                if (!produitService.verifierStockDisponible(ligneDTO.getProduitId(), ligneDTO.getQuantite())) {
-                    throw new RuntimeException("Stock insuffisant pour le produit ID : " + ligneDTO.getProduitId());
-                }
+                quantites.merge(ligneDTO.getProduitId(), ligneDTO.getQuantite(), Integer::sum);
             }
+            Map<Long, Produit> produits = chargerProduits(quantites.keySet());
+
+            // Contrôle rapide sur les données chargées ; la réservation reste l'arbitre final
+            quantites.forEach((produitId, quantite) -> {
+                Produit produit = produits.get(produitId);
+                if (!Boolean.TRUE.equals(produit.getDisponibilite()) || produit.getStockDisponible() < quantite) {
+                    throw new RuntimeException("Stock insuffisant pour le produit ID : " + produitId);
+                }
+            });
+
+            // ✅ ÉTAPE 2 : Réserver le stock de toutes les lignes en une seule opération atomique
+            stockReservationService.reserver(quantites);
 
-            // ✅ ÉTAPE 2 : Créer l'entité Commande
+            // ✅ ÉTAPE 3 : Créer l'entité Commande
             Commande commande = new Commande();
-            commande.setNumeroCommande(genererNumeroCommande());
+            commande.setNumeroCommande(identifiantService.numeroCommande());
             commande.setClient(client);
             commande.setStatutCommande(Commande.StatutCommande.EN_ATTENTE);
             commande.setModeLivraison(commandeDTO.getModeLivraison());
@@ -85,7 +108,7 @@ public class CommandeService {
 
             log.info("📝 Commande de base créée - Numéro: {}", commande.getNumeroCommande());
 
-            // ✅ ÉTAPE 3 : Données invité si applicable
+            // ✅ ÉTAPE 4 : Données invité si applicable
             if (inviteInfo != null) {
                 commande.setEmailInvite(inviteInfo.getEmailInvite());
                 commande.setNomInvite(inviteInfo.getNomInvite());
@@ -94,7 +117,7 @@ public class CommandeService {
                 log.info("👤 Données invité assignées");
             }
 
-            // ✅ ÉTAPE 4 : Adresse de livraison
+            // ✅ ÉTAPE 5 : Adresse de livraison
             if (commandeDTO.getAdresseLivraison() != null) {
                 Commande.AdresseLivraison adresseLivraison = new Commande.AdresseLivraison();
                 adresseLivraison.setNom(commandeDTO.getAdresseLivraison().getNom());
@@ -108,67 +131,52 @@ public class CommandeService {
                 log.info("🏠 Adresse de livraison assignée");
             }
 
-            // ✅ ÉTAPE 5 : Calculer les frais de livraison
+            // ✅ ÉTAPE 6 : Calculer les frais de livraison
             BigDecimal fraisLivraison = calculerFraisLivraison(commandeDTO);
             commande.setFraisLivraison(fraisLivraison);
             log.info("🚚 Frais de livraison calculés: {}", fraisLivraison);
 
-            // ✅ ÉTAPE 6 : CALCULER LE MONTANT TOTAL AVANT LA SAUVEGARDE
-            BigDecimal montantTotal = BigDecimal.ZERO;
-
-            // Calculer le montant des lignes de commande
-            for (CommandeDTO.LigneCommandeDTO ligneDTO : commandeDTO.getLignesCommande()) {
-                Produit produit = produitRepository.findById(ligneDTO.getProduitId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID : " + ligneDTO.getProduitId()));
-
-                BigDecimal sousTotal = produit.getPrix().multiply(BigDecimal.valueOf(ligneDTO.getQuantite()));
-                montantTotal = montantTotal.add(sousTotal);
-                log.info("📦 Produit ID {} - Prix: {} x Qté: {} = Sous-total: {}",
-                        ligneDTO.getProduitId(), produit.getPrix(), ligneDTO.getQuantite(), sousTotal);
-            }
-
-            // Ajouter les frais de livraison au montant total
-            montantTotal = montantTotal.add(fraisLivraison);
-
-            // ✅ ASSIGNER LE MONTANT TOTAL AVANT LA SAUVEGARDE
-            commande.setMontantTotal(montantTotal);
-            log.info("💰 Montant total calculé et assigné: {}", montantTotal);
-
-            // ✅ ÉTAPE 7 : SAUVEGARDER LA COMMANDE AVEC LE MONTANT TOTAL
-            log.info("💾 Sauvegarde de la commande...");
-            commande = commandeRepository.save(commande);
-            log.info("✅ Commande sauvegardée avec ID: {}", commande.getIdCommande());
-
-            // ✅ ÉTAPE 8 : Créer les lignes de commande
+            // ✅ ÉTAPE 7 : Créer les lignes et calculer le montant total à partir des produits chargés
             log.info("📋 Création des lignes de commande...");
+            BigDecimal montantTotal = BigDecimal.ZERO;
             List<LigneCommande> lignesCommande = new ArrayList<>();
 
             for (CommandeDTO.LigneCommandeDTO ligneDTO : commandeDTO.getLignesCommande()) {
-                Produit produit = produitRepository.findById(ligneDTO.getProduitId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID : " + ligneDTO.getProduitId()));
+                Produit produit = produits.get(ligneDTO.getProduitId());
+                BigDecimal sousTotal = produit.getPrix().multiply(BigDecimal.valueOf(ligneDTO.getQuantite()));
 
                 LigneCommande ligne = new LigneCommande();
                 ligne.setCommande(commande);
                 ligne.setProduit(produit);
                 ligne.setQuantite(ligneDTO.getQuantite());
                 ligne.setPrixUnitaire(produit.getPrix());
-                ligne.setSousTotal(produit.getPrix().multiply(BigDecimal.valueOf(ligneDTO.getQuantite())));
+                ligne.setSousTotal(sousTotal);
                 ligne.setNomProduitCommande(produit.getNomProduit());
                 ligne.setRefProduitCommande(produit.getRefProduit());
 
                 lignesCommande.add(ligne);
+                montantTotal = montantTotal.add(sousTotal);
 
-                // Décrémenter le stock
-                produitService.updateStock(produit.getIdProduit(),
-                        produit.getStockDisponible() - ligneDTO.getQuantite());
-
-                log.info("📦 Ligne de commande créée pour produit: {}", produit.getNomProduit());
+                log.info("📦 Produit ID {} - Prix: {} x Qté: {} = Sous-total: {}",
+                        ligneDTO.getProduitId(), produit.getPrix(), ligneDTO.getQuantite(), sousTotal);
             }
 
+            // Ajouter les frais de livraison au montant total
+            montantTotal = montantTotal.add(fraisLivraison);
+
             commande.setLignesCommande(lignesCommande);
+            commande.setMontantTotal(montantTotal);
+            log.info("💰 Montant total calculé et assigné: {}", montantTotal);
 
-            // ✅ ÉTAPE 9 : Sauvegarder la commande finale
+            // ✅ ÉTAPE 8 : Sauvegarder la commande ; les lignes suivent par cascade en un batch JDBC
+            log.info("💾 Sauvegarde de la commande...");
             commande = commandeRepository.save(commande);
+            eventPublisher.publishEvent(new CommandeCreeeEvent(
+                    commande.getIdCommande(),
+                    client != null ? client.getIdClient() : null,
+                    commande.getDateCommande(),
+                    commande.getStatutCommande(),
+                    commande.getMontantTotal()));
 
             log.info("🎉 === COMMANDE CRÉÉE AVEC SUCCÈS ===");
             log.info("🔢 ID: {}", commande.getIdCommande());
@@ -184,6 +192,17 @@ public class CommandeService {
         }
     }
 
+    private Map<Long, Produit> chargerProduits(Set<Long> ids) {
+        Map<Long, Produit> produits = produitRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Produit::getIdProduit, Function.identity()));
+        for (Long id : ids) {
+            if (!produits.containsKey(id)) {
+                throw new ResourceNotFoundException("Produit non trouvé avec l'ID : " + id);
+            }
+        }
+        return produits;
+    }
+
     public CommandeDTO confirmerPaiement(Long commandeId, CommandeDTO.PaiementDTO paiementDTO) {
         Commande commande = commandeRepository.findById(commandeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Commande non trouvée avec l'ID : " + commandeId));
@@ -194,14 +213,16 @@ public class CommandeService {
         paiement.setMethodePaiement(Paiement.MethodePaiement.valueOf(paiementDTO.getMethodePaiement()));
         paiement.setMontant(commande.getMontantTotal());
         paiement.setStatutPaiement(Paiement.StatutPaiement.CONFIRME);
-        paiement.setReferencePaiement(genererReferencePaiement());
+        paiement.setReferencePaiement(identifiantService.referencePaiement());
         paiement.setReferenceExterne(paiementDTO.getReferenceExterne());
 
         paiement = paiementRepository.save(paiement);
 
         // Mettre à jour le statut de la commande
+        Commande.StatutCommande ancienStatut = commande.getStatutCommande();
         commande.setStatutCommande(Commande.StatutCommande.PAYEE);
         commande = commandeRepository.save(commande);
+        eventPublisher.publishEvent(CommandeStatutModifieEvent.of(commande, ancienStatut));
 
         log.info("Paiement confirmé pour la commande : {}", commandeId);
         return convertToDTO(commande);
@@ -218,51 +239,8 @@ public class CommandeService {
         }
     }
 
-    private String genererNumeroCommande() {
-        return "CMD-" + System.currentTimeMillis();
-    }
-
-    private String genererNumeroSuivi() {
-        return "TRK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-
-    private String genererReferencePaiement() {
-        return "PAY-" + System.currentTimeMillis();
-    }
-
     private CommandeDTO convertToDTO(Commande commande) {
-        CommandeDTO dto = modelMapper.map(commande, CommandeDTO.class);
-
-        if (commande.getLignesCommande() != null) {
-            dto.setLignesCommande(commande.getLignesCommande().stream()
-                    .map(ligne -> {
-                        CommandeDTO.LigneCommandeDTO ligneDTO = new CommandeDTO.LigneCommandeDTO();
-                        ligneDTO.setIdLigneCommande(ligne.getIdLigneCommande());
-                        ligneDTO.setProduitId(ligne.getProduit().getIdProduit());
-                        ligneDTO.setQuantite(ligne.getQuantite());
-                        ligneDTO.setPrixUnitaire(ligne.getPrixUnitaire());
-                        ligneDTO.setSousTotal(ligne.getSousTotal());
-                        ligneDTO.setNomProduitCommande(ligne.getNomProduitCommande());
-                        ligneDTO.setRefProduitCommande(ligne.getRefProduitCommande());
-                        return ligneDTO;
-                    })
-                    .collect(Collectors.toList()));
-        }
-
-        if (commande.getPaiement() != null) {
-            Paiement paiement = commande.getPaiement();
-            CommandeDTO.PaiementDTO paiementDTO = new CommandeDTO.PaiementDTO();
-            paiementDTO.setIdPaiement(paiement.getIdPaiement());
-            paiementDTO.setMethodePaiement(paiement.getMethodePaiement().name());
-            paiementDTO.setStatutPaiement(paiement.getStatutPaiement().name());
-            paiementDTO.setMontant(paiement.getMontant());
-            paiementDTO.setDatePaiement(paiement.getDatePaiement());
-            paiementDTO.setReferencePaiement(paiement.getReferencePaiement());
-            paiementDTO.setReferenceExterne(paiement.getReferenceExterne());
-            dto.setPaiement(paiementDTO);
-        }
-
-        return dto;
+        return commandeMapper.toDTO(commande);
     }
 
     // Autres méthodes du service restent identiques...
@@ -297,6 +275,39 @@ public class CommandeService {
         return commandes.map(this::convertToDTO);
     }
 
+    /**
+     * Récupérer les commandes pour l'admin par curseur (pas de COUNT, coût constant quelle que soit la page)
+     */
+    public PageCurseurDTO<CommandeDTO> getCommandesAdminCurseur(String curseur, int taille, Commande.StatutCommande statut) {
+        Curseur position = Curseur.decoder(curseur);
+        Pageable pageable = PageRequest.of(0, taille);
+
+        Slice<Commande> commandes;
+        if (statut != null) {
+            commandes = position == null
+                    ? commandeRepository.findPremierePageByStatut(statut, pageable)
+                    : commandeRepository.findApresByStatut(statut, position.date(), position.id(), pageable);
+        } else {
+            commandes = position == null
+                    ? commandeRepository.findPremierePage(pageable)
+                    : commandeRepository.findApres(position.date(), position.id(), pageable);
+        }
+
+        List<Commande> contenu = commandes.getContent();
+        String curseurSuivant = null;
+        if (commandes.hasNext() && !contenu.isEmpty()) {
+            Commande derniere = contenu.get(contenu.size() - 1);
+            curseurSuivant = new Curseur(derniere.getDateCommande(), derniere.getIdCommande()).encoder();
+        }
+
+        return new PageCurseurDTO<>(
+                contenu.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                contenu.size(),
+                curseurSuivant,
+                commandes.hasNext()
+        );
+    }
+
     /**
      * Mettre à jour le statut d'une commande
      */
@@ -322,7 +333,7 @@ public class CommandeService {
         switch (nouveauStatut) {
             case EXPEDIE:
                 if (commande.getNumeroSuivi() == null) {
-                    commande.setNumeroSuivi(genererNumeroSuivi());
+                    commande.setNumeroSuivi(identifiantService.numeroSuivi());
                 }
                 break;
             case ANNULEE:
@@ -332,6 +343,7 @@ public class CommandeService {
         }
 
         commande = commandeRepository.save(commande);
+        eventPublisher.publishEvent(CommandeStatutModifieEvent.of(commande, ancienStatut));
         log.info("✅ Statut commande mis à jour - ID: {}, Statut: {}", commandeId, nouveauStatut);
 
         return convertToDTO(commande);
@@ -355,6 +367,7 @@ public class CommandeService {
             throw new IllegalStateException("Cette commande est déjà annulée");
         }
 
+        Commande.StatutCommande ancienStatut = commande.getStatutCommande();
         commande.setStatutCommande(Commande.StatutCommande.ANNULEE);
        // commande.setMotifAnnulation(motif);
         commande.setDateModification(LocalDateTime.now());
@@ -363,6 +376,7 @@ public class CommandeService {
         restaurerStock(commande);
 
         commande = commandeRepository.save(commande);
+        eventPublisher.publishEvent(CommandeStatutModifieEvent.of(commande, ancienStatut));
         log.info("✅ Commande annulée - ID: {}", commandeId);
 
         return convertToDTO(commande);
@@ -383,6 +397,7 @@ public class CommandeService {
         }
 
         commandeRepository.delete(commande);
+        eventPublisher.publishEvent(CommandeStatutModifieEvent.supprimee(commande));
         log.info("✅ Commande supprimée - ID: {}", commandeId);
     }
 
@@ -428,20 +443,13 @@ public class CommandeService {
      * Restaurer le stock des produits lors d'une annulation
      */
     private void restaurerStock(Commande commande) {
-        if (commande.getLignesCommande() != null) {
+        if (commande.getLignesCommande() != null && !commande.getLignesCommande().isEmpty()) {
+            Map<Long, Integer> quantites = new HashMap<>();
             for (LigneCommande ligne : commande.getLignesCommande()) {
-                try {
-                    Produit produit = ligne.getProduit();
-                    int nouvelleQuantite = produit.getStockDisponible() + ligne.getQuantite();
-                    produitService.updateStock(produit.getIdProduit(), nouvelleQuantite);
-
-                    log.info("🔄 Stock restauré - Produit: {} (+{})",
-                            produit.getNomProduit(), ligne.getQuantite());
-                } catch (Exception e) {
-                    log.error("❌ Erreur lors de la restauration du stock pour le produit ID: {}",
-                            ligne.getProduit().getIdProduit(), e);
-                }
+                quantites.merge(ligne.getProduit().getIdProduit(), ligne.getQuantite(), Integer::sum);
             }
+            stockReservationService.liberer(quantites);
+            log.info("🔄 Stock restauré pour la commande {}", commande.getNumeroCommande());
         }
     }
 
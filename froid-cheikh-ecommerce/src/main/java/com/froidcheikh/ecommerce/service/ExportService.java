@@ -0,0 +1,329 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.froidcheikh.ecommerce.entity.Commande;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Export des commandes et des clients en CSV ou NDJSON, écrit directement dans le flux de la réponse.
+ * Les lignes sont lues par un curseur JDBC en avant seulement (fetch size borné) : la mémoire reste
+ * constante quel que soit le volume. Sous PostgreSQL le curseur n'est actif que dans une transaction,
+ * d'où le @Transactional(readOnly = true).
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format depuis(String valeur) {
+            try {
+                return Format.valueOf(valeur.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Format d'export non supporté : " + valeur + " (csv ou ndjson)");
+            }
+        }
+    }
+
+    private static final String SQL_COMMANDES = """
+            SELECT c.id_commande, c.numero_commande, c.date_commande, c.statut_commande, c.mode_livraison,
+                   c.montant_total, c.frais_livraison, c.client_id,
+                   COALESCE(cl.email, c.email_invite) AS email,
+                   COALESCE(cl.nom, c.nom_invite) AS nom,
+                   COALESCE(cl.prenom, c.prenom_invite) AS prenom,
+                   l.produit_id, l.ref_produit_commande, l.nom_produit_commande, l.quantite, l.prix_unitaire, l.sous_total
+            FROM commandes c
+            LEFT JOIN clients cl ON cl.id_client = c.client_id
+            LEFT JOIN lignes_commande l ON l.commande_id = c.id_commande
+            """;
+
+    private static final String SQL_CLIENTS = """
+            SELECT c.id_client, c.nom, c.prenom, c.email, c.telephone, c.genre, c.actif, c.date_creation
+            FROM clients c
+            """;
+
+    private static final String[] ENTETES_COMMANDES = {
+            "id_commande", "numero_commande", "date_commande", "statut", "mode_livraison", "montant_total",
+            "frais_livraison", "client_id", "email", "nom", "prenom", "produit_id", "ref_produit", "nom_produit",
+            "quantite", "prix_unitaire", "sous_total"
+    };
+
+    private static final String[] ENTETES_CLIENTS = {
+            "id_client", "nom", "prenom", "email", "telephone", "genre", "actif", "date_creation"
+    };
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate,
+                         @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.jsonFactory = new JsonFactory()
+                .setRootValueSeparator("\n")
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * CSV : une ligne par ligne de commande (colonnes de la commande répétées).
+     * NDJSON : un objet par commande avec le tableau de ses lignes.
+     */
+    @Transactional(readOnly = true)
+    public long exporterCommandes(OutputStream sortie, Format format, LocalDate dateDebut, LocalDate dateFin,
+                                  Commande.StatutCommande statut) throws IOException {
+        List<Object> parametres = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        filtrerPeriode("c.date_commande", dateDebut, dateFin, conditions, parametres);
+        if (statut != null) {
+            conditions.add("c.statut_commande = ?");
+            parametres.add(statut.name());
+        }
+        String sql = SQL_COMMANDES + where(conditions) + " ORDER BY c.id_commande, l.id_ligne_commande";
+
+        long debut = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), TAILLE_TAMPON);
+        long total = format == Format.CSV
+                ? ecrireCsv(writer, sql, parametres, ENTETES_COMMANDES)
+                : ecrireCommandesNdjson(writer, sql, parametres);
+        writer.flush();
+
+        log.info("📤 Export commandes ({}) : {} enregistrement(s) en {} ms", format, total, System.currentTimeMillis() - debut);
+        return total;
+    }
+
+    @Transactional(readOnly = true)
+    public long exporterClients(OutputStream sortie, Format format, LocalDate dateDebut, LocalDate dateFin,
+                                Boolean actif) throws IOException {
+        List<Object> parametres = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        filtrerPeriode("c.date_creation", dateDebut, dateFin, conditions, parametres);
+        if (actif != null) {
+            conditions.add("c.actif = ?");
+            parametres.add(actif);
+        }
+        String sql = SQL_CLIENTS + where(conditions) + " ORDER BY c.id_client";
+
+        long debut = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), TAILLE_TAMPON);
+        long total = format == Format.CSV
+                ? ecrireCsv(writer, sql, parametres, ENTETES_CLIENTS)
+                : ecrireNdjson(writer, sql, parametres, ENTETES_CLIENTS);
+        writer.flush();
+
+        log.info("📤 Export clients ({}) : {} enregistrement(s) en {} ms", format, total, System.currentTimeMillis() - debut);
+        return total;
+    }
+
+    // ==================== ÉCRITURE ====================
+
+    // Les noms d'en-tête correspondent aux colonnes du SELECT, dans l'ordre
+    private long ecrireCsv(Writer writer, String sql, List<Object> parametres, String[] entetes) throws IOException {
+        writer.write(String.join(",", entetes));
+        writer.write("\r\n");
+
+        long[] total = {0};
+        parcourir(sql, parametres, rs -> {
+            for (int i = 0; i < entetes.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(celluleCsv(rs.getObject(i + 1)));
+            }
+            writer.write("\r\n");
+            total[0]++;
+        });
+        return total[0];
+    }
+
+    private long ecrireNdjson(Writer writer, String sql, List<Object> parametres, String[] champs) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer);
+        long[] total = {0};
+        parcourir(sql, parametres, rs -> {
+            json.writeStartObject();
+            for (int i = 0; i < champs.length; i++) {
+                ecrireChamp(json, champs[i], rs.getObject(i + 1));
+            }
+            json.writeEndObject();
+            total[0]++;
+        });
+        terminer(json, total[0]);
+        return total[0];
+    }
+
+    // Les lignes arrivent triées par commande : on ferme l'objet courant dès que l'ID change
+    private long ecrireCommandesNdjson(Writer writer, String sql, List<Object> parametres) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer);
+        long[] total = {0};
+        long[] commandeCourante = {-1};
+        parcourir(sql, parametres, rs -> {
+            long idCommande = rs.getLong("id_commande");
+            if (idCommande != commandeCourante[0]) {
+                if (commandeCourante[0] != -1) {
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+                commandeCourante[0] = idCommande;
+                total[0]++;
+
+                json.writeStartObject();
+                ecrireChamp(json, "idCommande", idCommande);
+                ecrireChamp(json, "numeroCommande", rs.getString("numero_commande"));
+                ecrireChamp(json, "dateCommande", rs.getTimestamp("date_commande"));
+                ecrireChamp(json, "statut", rs.getString("statut_commande"));
+                ecrireChamp(json, "modeLivraison", rs.getString("mode_livraison"));
+                ecrireChamp(json, "montantTotal", rs.getBigDecimal("montant_total"));
+                ecrireChamp(json, "fraisLivraison", rs.getBigDecimal("frais_livraison"));
+                ecrireChamp(json, "clientId", rs.getObject("client_id"));
+                ecrireChamp(json, "email", rs.getString("email"));
+                ecrireChamp(json, "nom", rs.getString("nom"));
+                ecrireChamp(json, "prenom", rs.getString("prenom"));
+                json.writeArrayFieldStart("lignes");
+            }
+
+            if (rs.getObject("quantite") != null) {
+                json.writeStartObject();
+                ecrireChamp(json, "produitId", rs.getObject("produit_id"));
+                ecrireChamp(json, "refProduit", rs.getString("ref_produit_commande"));
+                ecrireChamp(json, "nomProduit", rs.getString("nom_produit_commande"));
+                ecrireChamp(json, "quantite", rs.getObject("quantite"));
+                ecrireChamp(json, "prixUnitaire", rs.getBigDecimal("prix_unitaire"));
+                ecrireChamp(json, "sousTotal", rs.getBigDecimal("sous_total"));
+                json.writeEndObject();
+            }
+        });
+        if (commandeCourante[0] != -1) {
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        terminer(json, total[0]);
+        return total[0];
+    }
+
+    private static void terminer(JsonGenerator json, long total) throws IOException {
+        if (total > 0) {
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+
+    private static void ecrireChamp(JsonGenerator json, String nom, Object valeur) throws IOException {
+        if (valeur == null) {
+            json.writeNullField(nom);
+        } else if (valeur instanceof BigDecimal nombre) {
+            json.writeNumberField(nom, nombre);
+        } else if (valeur instanceof Long || valeur instanceof Integer) {
+            json.writeNumberField(nom, ((Number) valeur).longValue());
+        } else if (valeur instanceof Boolean booleen) {
+            json.writeBooleanField(nom, booleen);
+        } else if (valeur instanceof Timestamp horodatage) {
+            json.writeStringField(nom, horodatage.toLocalDateTime().toString());
+        } else {
+            json.writeStringField(nom, valeur.toString());
+        }
+    }
+
+    // RFC 4180 ; les textes commençant par = + - @ sont préfixés pour ne pas être interprétés comme formules par un tableur
+    private static String celluleCsv(Object valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        if (valeur instanceof Timestamp horodatage) {
+            return horodatage.toLocalDateTime().toString();
+        }
+        if (!(valeur instanceof String texte)) {
+            return valeur.toString();
+        }
+        if (!texte.isEmpty() && "=+-@".indexOf(texte.charAt(0)) >= 0) {
+            texte = "'" + texte;
+        }
+        if (texte.indexOf(',') >= 0 || texte.indexOf('"') >= 0 || texte.indexOf('\n') >= 0 || texte.indexOf('\r') >= 0) {
+            return '"' + texte.replace("\"", "\"\"") + '"';
+        }
+        return texte;
+    }
+
+    // ==================== LECTURE ====================
+
+    @FunctionalInterface
+    private interface LigneHandler {
+        void traiter(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private void parcourir(String sql, List<Object> parametres, LigneHandler handler) throws IOException {
+        RowCallbackHandler callback = rs -> {
+            try {
+                handler.traiter(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < parametres.size(); i++) {
+                    ps.setObject(i + 1, parametres.get(i));
+                }
+                return ps;
+            }, callback);
+        } catch (UncheckedIOException e) {
+            // Client déconnecté pendant l'export : on arrête la lecture
+            throw e.getCause();
+        }
+    }
+
+    private static void filtrerPeriode(String colonne, LocalDate dateDebut, LocalDate dateFin,
+                                       List<String> conditions, List<Object> parametres) {
+        if (dateDebut != null) {
+            conditions.add(colonne + " >= ?");
+            parametres.add(Timestamp.valueOf(dateDebut.atStartOfDay()));
+        }
+        if (dateFin != null) {
+            conditions.add(colonne + " < ?");
+            parametres.add(Timestamp.valueOf(dateFin.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
@@ -0,0 +1,250 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Envoi des fichiers uploadés : un seul accès aux attributs du fichier par requête, ETag fort (nom du fichier
+ * quand il est immuable, SHA-256 du contenu sinon, mis en cache tant que taille et date de modification
+ * ne changent pas), réponses 304, requêtes Range
+ * (reprise et navigation dans les PDF et vidéos) et copie sans passer par le tas :
+ * sendfile de Tomcat quand le connecteur le permet, FileChannel.transferTo sinon.
+ */
+@Service
+@Slf4j
+public class FichierStatiqueService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FICHIER = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_DEBUT = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    // Même seuil que le DefaultServlet de Tomcat : en dessous, une copie tamponnée coûte moins cher que sendfile
+    private static final long SEUIL_SENDFILE = 48 * 1024;
+
+    private static final String CACHE_IMMUABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATION = "public, max-age=3600";
+
+    private final Cache<Path, Empreinte> empreintes;
+
+    private record Empreinte(long taille, long modification, String etag) {
+    }
+
+    private record Plage(long debut, long fin) {
+
+        long longueur() {
+            return fin - debut + 1;
+        }
+    }
+
+    public FichierStatiqueService(@Value("${app.cache.etags.taille-max:20000}") long tailleMax) {
+        this.empreintes = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .build();
+    }
+
+    /**
+     * Envoie le fichier, ou une réponse 304/206/416 selon les en-têtes de la requête.
+     * Ne touche pas à la réponse et retourne false si le fichier n'existe pas.
+     *
+     * @param immuable le nom du fichier ne désignera jamais un autre contenu : mise en cache d'un an sans revalidation
+     */
+    public boolean servir(Path fichier, boolean immuable, HttpServletRequest requete, HttpServletResponse reponse)
+            throws IOException {
+        BasicFileAttributes attributs;
+        try {
+            attributs = Files.readAttributes(fichier, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (!attributs.isRegularFile()) {
+            return false;
+        }
+
+        long taille = attributs.size();
+        long modification = attributs.lastModifiedTime().toMillis();
+        // Un nom immuable désigne un contenu unique : il sert lui-même de validateur, sans relire le fichier
+        String etag = immuable ? "\"" + fichier.getFileName() + "\"" : etag(fichier, taille, modification);
+
+        reponse.setHeader(HttpHeaders.ETAG, etag);
+        reponse.setDateHeader(HttpHeaders.LAST_MODIFIED, modification);
+        reponse.setHeader(HttpHeaders.CACHE_CONTROL, immuable ? CACHE_IMMUABLE : CACHE_REVALIDATION);
+        reponse.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (nonModifie(requete, etag, modification)) {
+            reponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            log.debug("Fichier non modifié (304): {}", fichier);
+            return true;
+        }
+
+        reponse.setContentType(MediaTypeFactory.getMediaType(fichier.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        reponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fichier.getFileName() + "\"");
+
+        Plage plage = new Plage(0, taille - 1);
+        String range = requete.getHeader(HttpHeaders.RANGE);
+        if (range != null && taille > 0 && ifRangeValide(requete, etag, modification)) {
+            Plage demandee = plage(range, taille);
+            if (demandee == null) {
+                reponse.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                reponse.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + taille);
+                return true;
+            }
+            if (demandee.longueur() < taille) {
+                plage = demandee;
+                reponse.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                reponse.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + plage.debut() + "-" + plage.fin() + "/" + taille);
+            }
+        }
+
+        reponse.setContentLengthLong(plage.longueur());
+        log.debug("Envoi de {} octets [{}-{}] de {}", plage.longueur(), plage.debut(), plage.fin(), fichier);
+        if (!"HEAD".equals(requete.getMethod()) && plage.longueur() > 0) {
+            envoyer(fichier, plage, requete, reponse);
+        }
+        return true;
+    }
+
+    private void envoyer(Path fichier, Plage plage, HttpServletRequest requete, HttpServletResponse reponse)
+            throws IOException {
+        if (plage.longueur() >= SEUIL_SENDFILE && Boolean.TRUE.equals(requete.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envoie le fichier lui-même (sendfile) une fois la servlet terminée
+            requete.setAttribute(SENDFILE_FICHIER, fichier.toAbsolutePath().toString());
+            requete.setAttribute(SENDFILE_DEBUT, plage.debut());
+            requete.setAttribute(SENDFILE_FIN, plage.fin() + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            WritableByteChannel sortie = Channels.newChannel(reponse.getOutputStream());
+            long position = plage.debut();
+            long restant = plage.longueur();
+            while (restant > 0) {
+                long envoye = canal.transferTo(position, restant, sortie);
+                if (envoye <= 0) {
+                    break;
+                }
+                position += envoye;
+                restant -= envoye;
+            }
+        }
+    }
+
+    // If-None-Match prime sur If-Modified-Since (RFC 9110, 13.2.2)
+    private boolean nonModifie(HttpServletRequest requete, String etag, long modification) {
+        String ifNoneMatch = requete.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidat : ifNoneMatch.split(",")) {
+                String valeur = candidat.trim();
+                if (valeur.equals("*") || valeur.equals(etag) || valeur.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateEnTete(requete, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && modification / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // Un If-Range périmé signifie que la copie partielle du client n'est plus valable : le fichier entier est renvoyé
+    private boolean ifRangeValide(HttpServletRequest requete, String etag, long modification) {
+        String ifRange = requete.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateEnTete(requete, HttpHeaders.IF_RANGE);
+        return date >= 0 && modification / 1000 == date / 1000;
+    }
+
+    private static long dateEnTete(HttpServletRequest requete, String nom) {
+        try {
+            return requete.getDateHeader(nom);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Plage unique "bytes=debut-fin", "bytes=debut-" ou "bytes=-suffixe", bornée à la taille du fichier.
+     * Les requêtes multi-plages reçoivent le fichier entier, ce que la RFC autorise ; null si insatisfiable.
+     */
+    private static Plage plage(String range, long taille) {
+        Plage entiere = new Plage(0, taille - 1);
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return entiere;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int tiret = spec.indexOf('-');
+        if (tiret < 0) {
+            return entiere;
+        }
+        try {
+            String debut = spec.substring(0, tiret).trim();
+            String fin = spec.substring(tiret + 1).trim();
+            if (debut.isEmpty()) {
+                long suffixe = Long.parseLong(fin);
+                return suffixe > 0 ? new Plage(Math.max(0, taille - suffixe), taille - 1) : null;
+            }
+            long premier = Long.parseLong(debut);
+            long dernier = fin.isEmpty() ? taille - 1 : Math.min(Long.parseLong(fin), taille - 1);
+            if (premier >= taille) {
+                return null;
+            }
+            return premier <= dernier ? new Plage(premier, dernier) : entiere;
+        } catch (NumberFormatException e) {
+            return entiere;
+        }
+    }
+
+    private String etag(Path fichier, long taille, long modification) throws IOException {
+        Empreinte empreinte = empreintes.getIfPresent(fichier);
+        if (empreinte == null || empreinte.taille() != taille || empreinte.modification() != modification) {
+            empreinte = new Empreinte(taille, modification, "\"" + sha256(fichier) + "\"");
+            empreintes.put(fichier, empreinte);
+        }
+        return empreinte.etag();
+    }
+
+    private static String sha256(Path fichier) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+        ByteBuffer tampon = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            while (canal.read(tampon) >= 0) {
+                tampon.flip();
+                digest.update(tampon);
+                tampon.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
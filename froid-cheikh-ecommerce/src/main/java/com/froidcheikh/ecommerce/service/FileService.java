@@ -1,32 +1,134 @@
 package com.froidcheikh.ecommerce.service;
 
+import com.froidcheikh.ecommerce.repository.CategorieRepository;
+import com.froidcheikh.ecommerce.repository.MarqueRepository;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
-
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage des fichiers uploadés, adressé par contenu : un fichier est nommé d'après le SHA-256 de ses octets,
+ * calculé pendant la copie, et rangé dans sous-repertoire/ab/cd/abcd....ext. Un même contenu uploadé plusieurs
+ * fois n'est stocké qu'une fois. Comme il peut être partagé, sa suppression est différée : deleteFile ne fait que
+ * signaler qu'une référence a disparu, et libererFichiers() supprime ensuite les fichiers qu'aucun produit,
+ * catégorie ou marque ne référence plus.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FileService {
 
+    private static final String REPERTOIRE_TEMPORAIRE = ".tmp";
+    private static final int NOMBRE_VERROUS = 64;
+
+    private final ImageDeriveeService imageDeriveeService;
+    private final ProduitRepository produitRepository;
+    private final CategorieRepository categorieRepository;
+    private final MarqueRepository marqueRepository;
+
+    // Chemin -> instant de la dernière référence retirée ; le délai laisse aux transactions en cours le temps
+    // d'enregistrer une nouvelle référence vers le même contenu
+    private final Map<String, Long> liberationsEnAttente = new ConcurrentHashMap<>();
+
+    // Sérialise, pour un même chemin, la réutilisation d'un contenu existant et sa suppression
+    private final Object[] verrous = creerVerrous();
+
+    @Value("${app.upload.liberation-delai-ms:60000}")
+    private long delaiLiberation;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
     @Value("${app.upload.max-file-size:5242880}") // 5MB par défaut
     private long maxFileSize;
 
+    @Value("${app.upload.flux.taille-max:314572800}") // 300MB par requête d'upload en flux
+    private long maxStreamSize;
+
+    @Value("${app.upload.flux.fichiers-max:100}")
+    private long maxStreamFiles;
+
+    /**
+     * Types reconnus à leur signature (premiers octets), avec l'extension sous laquelle ils sont stockés
+     */
+    private enum TypeFichier {
+        JPEG("jpg"), PNG("png"), GIF("gif"), WEBP("webp"), PDF("pdf");
+
+        static final Set<TypeFichier> IMAGES = EnumSet.of(JPEG, PNG, GIF, WEBP);
+        static final int TAILLE_SIGNATURE = 12;
+
+        final String extension;
+
+        TypeFichier(String extension) {
+            this.extension = extension;
+        }
+
+        static TypeFichier detecter(byte[] entete, int longueur) {
+            if (commencePar(entete, longueur, 0, 0xFF, 0xD8, 0xFF)) {
+                return JPEG;
+            }
+            if (commencePar(entete, longueur, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+                return PNG;
+            }
+            if (commencePar(entete, longueur, 0, 'G', 'I', 'F', '8') && longueur >= 6
+                    && (entete[4] == '7' || entete[4] == '9') && entete[5] == 'a') {
+                return GIF;
+            }
+            if (commencePar(entete, longueur, 0, 'R', 'I', 'F', 'F') && commencePar(entete, longueur, 8, 'W', 'E', 'B', 'P')) {
+                return WEBP;
+            }
+            if (commencePar(entete, longueur, 0, '%', 'P', 'D', 'F', '-')) {
+                return PDF;
+            }
+            return null;
+        }
+
+        private static boolean commencePar(byte[] entete, int longueur, int decalage, int... octets) {
+            if (longueur < decalage + octets.length) {
+                return false;
+            }
+            for (int i = 0; i < octets.length; i++) {
+                if ((entete[decalage + i] & 0xFF) != octets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     );
@@ -35,39 +137,145 @@ public class FileService {
             "application/pdf"
     );
 
+    // Empreintes SHA-256 (et anciens noms horodatés), éventuellement suivies du suffixe d'une déclinaison :
+    // jamais réécrits, ils peuvent être mis en cache sans revalidation
+    private static final Pattern NOM_GENERE =
+            Pattern.compile("([0-9a-f]{64}|\\d{8}_\\d{6}_[0-9a-f]{8})(_[a-z]+)?(\\.[a-z0-9]+)?", Pattern.CASE_INSENSITIVE);
+
     private static final List<String> ALLOWED_IMAGE_EXTENSIONS = Arrays.asList(
             "jpg", "jpeg", "png", "gif", "webp"
     );
 
     /**
-     * Upload un fichier dans le répertoire spécifié
+     * Upload un fichier dans le répertoire spécifié, sous le nom de son empreinte SHA-256.
+     * Si ce contenu est déjà stocké, le fichier existant est réutilisé.
+     * L'extension est celle du type détecté sur les premiers octets, comme pour l'upload en flux :
+     * un même contenu a un seul nom quel que soit le nom du fichier envoyé. Celle du nom n'est gardée
+     * que pour les types non reconnus.
      */
     public String uploadFile(MultipartFile file, String subDirectory) {
         try {
             // Validation du fichier
             validateFile(file);
 
-            // Création du répertoire de destination
-            Path uploadPath = createUploadDirectory(subDirectory);
+            TypeFichier type = detecterType(file);
+            String extension = type != null ? type.extension : normaliserExtension(file.getOriginalFilename());
+            try (InputStream entree = file.getInputStream()) {
+                return stocker(entree, extension, subDirectory);
+            }
 
-            // Génération du nom de fichier unique
-            String fileName = generateUniqueFileName(file.getOriginalFilename());
+        } catch (IOException e) {
+            log.error("Erreur lors de l'upload du fichier: {}", e.getMessage());
+            throw new RuntimeException("Impossible d'uploader le fichier: " + e.getMessage());
+        }
+    }
 
-            // Chemin complet du fichier
-            Path filePath = uploadPath.resolve(fileName);
+    /**
+     * Upload en flux d'un lot d'images (multipart/form-data) : chaque partie est lue une seule fois, son type
+     * vérifié sur ses premiers octets, puis écrite directement dans le stockage pendant la lecture de la requête.
+     * Les déclinaisons de chaque image sont générées en parallèle, pendant la lecture des parties suivantes.
+     * En cas d'erreur, les images déjà stockées sont libérées et aucune n'est retournée.
+     */
+    public List<String> uploadImagesStreaming(HttpServletRequest request, String subDirectory) {
+        FileUpload upload = new FileUpload();
+        upload.setFileSizeMax(maxFileSize);
+        upload.setSizeMax(maxStreamSize);
+        upload.setFileCountMax(maxStreamFiles);
+
+        List<String> relativePaths = new ArrayList<>();
+        List<CompletableFuture<Void>> derivees = new ArrayList<>();
+        try {
+            FileItemIterator parts = upload.getItemIterator(new ServletRequestContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if (part.isFormField()) {
+                    continue;
+                }
+                String relativePath;
+                try (InputStream entree = part.openStream()) {
+                    relativePath = stockerType(entree, TypeFichier.IMAGES, part.getName(), subDirectory);
+                }
+                relativePaths.add(relativePath);
+                derivees.add(imageDeriveeService.genererAsync(relativePath));
+                log.debug("Partie stockée: {} -> {}", part.getName(), relativePath);
+            }
+            if (relativePaths.isEmpty()) {
+                throw new IllegalArgumentException("Aucun fichier dans la requête");
+            }
+            CompletableFuture.allOf(derivees.toArray(CompletableFuture[]::new)).join();
+            log.info("{} image(s) uploadée(s) en flux dans {}", relativePaths.size(), subDirectory);
+            return relativePaths;
 
-            // Copie du fichier
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            relativePaths.forEach(this::deleteFile);
+            // Limites de taille ou de nombre dépassées, multipart mal formé : erreur du client
+            Throwable cause = e instanceof FileUploadException ? e : e.getCause();
+            if (cause instanceof FileUploadException) {
+                throw new IllegalArgumentException("Requête d'upload invalide: " + cause.getMessage());
+            }
+            log.error("Erreur lors de l'upload en flux: {}", e.getMessage());
+            throw new RuntimeException("Impossible d'uploader les fichiers: " + e.getMessage());
+        } catch (RuntimeException e) {
+            relativePaths.forEach(this::deleteFile);
+            throw e;
+        }
+    }
+
+    // Type lu sur les premiers octets, mis de côté puis relus : le flux n'est parcouru qu'une fois
+    private String stockerType(InputStream source, Set<TypeFichier> typesAutorises, String nom, String subDirectory)
+            throws IOException {
+        BufferedInputStream entree = new BufferedInputStream(source);
+        entree.mark(TypeFichier.TAILLE_SIGNATURE);
+        byte[] entete = entree.readNBytes(TypeFichier.TAILLE_SIGNATURE);
+        entree.reset();
+
+        TypeFichier type = TypeFichier.detecter(entete, entete.length);
+        if (type == null || !typesAutorises.contains(type)) {
+            throw new IllegalArgumentException("Format de fichier non autorisé : " + nom);
+        }
+        return stocker(entree, type.extension, subDirectory);
+    }
+
+    /**
+     * Copie le flux dans un fichier temporaire du même volume en calculant son empreinte,
+     * puis le déplace sous son nom définitif (ou le supprime si ce contenu est déjà stocké)
+     */
+    private String stocker(InputStream source, String extension, String subDirectory) throws IOException {
+        Path temporaire = Files.createTempFile(createUploadDirectory(REPERTOIRE_TEMPORAIRE), "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream entree = new DigestInputStream(source, digest)) {
+                Files.copy(entree, temporaire, StandardCopyOption.REPLACE_EXISTING);
+            }
 
             // Retourne le chemin relatif pour la base de données
-            String relativePath = subDirectory + "/" + fileName;
+            String relativePath = contentAddressedPath(subDirectory, HexFormat.of().formatHex(digest.digest()), extension);
+            Path filePath = getFilePath(relativePath);
+
+            synchronized (verrou(relativePath)) {
+                // Le contenu est de nouveau référencé : il ne doit plus être libéré
+                liberationsEnAttente.remove(relativePath);
+                if (Files.exists(filePath)) {
+                    log.info("Fichier déjà stocké, réutilisé: {}", relativePath);
+                    return relativePath;
+                }
+                Files.createDirectories(filePath.getParent());
+                Files.move(temporaire, filePath, StandardCopyOption.ATOMIC_MOVE);
+            }
             log.info("Fichier uploadé avec succès: {}", relativePath);
 
             return relativePath;
 
-        } catch (IOException e) {
-            log.error("Erreur lors de l'upload du fichier: {}", e.getMessage());
-            throw new RuntimeException("Impossible d'uploader le fichier: " + e.getMessage());
+        } finally {
+            supprimerTemporaire(temporaire);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
         }
     }
 
@@ -81,21 +289,71 @@ public class FileService {
     }
 
     /**
-     * Supprime un fichier
+     * Upload une image et génère ses déclinaisons (thumb, medium, large)
+     */
+    public String uploadImage(MultipartFile file, String subDirectory) {
+        String relativePath = uploadFile(file, subDirectory);
+        imageDeriveeService.generer(relativePath);
+        return relativePath;
+    }
+
+    /**
+     * Upload plusieurs images ; les déclinaisons sont générées en parallèle une fois tous les fichiers écrits
      */
-    public boolean deleteFile(String filePath) {
+    public List<String> uploadImages(MultipartFile[] files, String subDirectory) {
+        List<String> relativePaths = uploadMultipleFiles(files, subDirectory);
+        imageDeriveeService.generer(relativePaths);
+        return relativePaths;
+    }
+
+    /**
+     * Signale qu'une référence vers un fichier a été retirée. Le fichier et ses déclinaisons ne sont supprimés
+     * que par libererFichiers(), une fois le délai écoulé, si plus aucune entité ne le référence.
+     */
+    public void deleteFile(String filePath) {
+        getFilePath(filePath);
+        liberationsEnAttente.put(filePath, System.currentTimeMillis());
+        log.debug("Libération programmée: {}", filePath);
+    }
+
+    /**
+     * Supprime les fichiers signalés par deleteFile qui ne sont plus référencés
+     */
+    @Scheduled(initialDelayString = "${app.upload.liberation-delai-ms:60000}",
+            fixedDelayString = "${app.upload.liberation-delai-ms:60000}")
+    public void libererFichiers() {
+        long limite = System.currentTimeMillis() - delaiLiberation;
+        liberationsEnAttente.forEach((filePath, instant) -> {
+            if (instant > limite) {
+                return;
+            }
+            synchronized (verrou(filePath)) {
+                if (!liberationsEnAttente.remove(filePath, instant)) {
+                    return;
+                }
+                long references = produitRepository.countReferencesFichier(filePath)
+                        + categorieRepository.countByImageCategorie(filePath)
+                        + marqueRepository.countByLogo(filePath);
+                if (references > 0) {
+                    log.debug("Fichier encore référencé {} fois, conservé: {}", references, filePath);
+                    return;
+                }
+                supprimer(filePath);
+            }
+        });
+    }
+
+    private void supprimer(String filePath) {
         try {
-            Path path = Paths.get(uploadDir).resolve(filePath);
-            boolean deleted = Files.deleteIfExists(path);
+            boolean deleted = Files.deleteIfExists(getFilePath(filePath));
+            imageDeriveeService.supprimer(filePath);
             if (deleted) {
                 log.info("Fichier supprimé: {}", filePath);
             } else {
                 log.warn("Fichier non trouvé pour suppression: {}", filePath);
             }
-            return deleted;
         } catch (IOException e) {
             log.error("Erreur lors de la suppression du fichier {}: {}", filePath, e.getMessage());
-            return false;
         }
     }
 
@@ -114,7 +372,8 @@ public class FileService {
         }
 
         String extension = getFileExtension(file.getOriginalFilename());
-        return ALLOWED_IMAGE_EXTENSIONS.contains(extension.toLowerCase());
+        return ALLOWED_IMAGE_EXTENSIONS.contains(extension.toLowerCase())
+                && TypeFichier.IMAGES.contains(detecterType(file));
     }
 
     /**
@@ -126,7 +385,20 @@ public class FileService {
         }
 
         String contentType = file.getContentType();
-        return ALLOWED_PDF_TYPES.contains(contentType);
+        return ALLOWED_PDF_TYPES.contains(contentType) && detecterType(file) == TypeFichier.PDF;
+    }
+
+    /**
+     * Type réel du fichier d'après ses premiers octets (le Content-Type est fourni par le client)
+     */
+    private TypeFichier detecterType(MultipartFile file) {
+        try (InputStream entree = file.getInputStream()) {
+            byte[] entete = entree.readNBytes(TypeFichier.TAILLE_SIGNATURE);
+            return TypeFichier.detecter(entete, entete.length);
+        } catch (IOException e) {
+            log.warn("Impossible de lire l'en-tête du fichier {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -162,14 +434,43 @@ public class FileService {
     }
 
     /**
-     * Génère un nom de fichier unique
+     * Chemin adressé par contenu : sous-repertoire/ab/cd/abcd....ext
      */
-    private String generateUniqueFileName(String originalFilename) {
-        String extension = getFileExtension(originalFilename);
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8);
+    private String contentAddressedPath(String subDirectory, String empreinte, String extension) {
+        String suffixe = extension.isEmpty() ? "" : "." + extension;
+        return subDirectory + "/" + empreinte.substring(0, 2) + "/" + empreinte.substring(2, 4) + "/" + empreinte + suffixe;
+    }
 
-        return String.format("%s_%s.%s", timestamp, uuid, extension);
+    /**
+     * Extension du nom de fichier, normalisée (jpeg -> jpg, minuscules), pour les types non détectés
+     */
+    private String normaliserExtension(String originalFilename) {
+        String extension = getFileExtension(originalFilename).toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) {
+            extension = "jpg";
+        }
+        return extension.matches("[a-z0-9]{1,10}") ? extension : "";
+    }
+
+    private Object verrou(String relativePath) {
+        return verrous[Math.floorMod(relativePath.hashCode(), verrous.length)];
+    }
+
+    private static Object[] creerVerrous() {
+        Object[] verrous = new Object[NOMBRE_VERROUS];
+        Arrays.setAll(verrous, i -> new Object());
+        return verrous;
+    }
+
+    private void supprimerTemporaire(Path temporaire) {
+        if (temporaire == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporaire);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier temporaire {}: {}", temporaire, e.getMessage());
+        }
     }
 
     /**
@@ -184,10 +485,22 @@ public class FileService {
     }
 
     /**
-     * Obtient le chemin absolu d'un fichier
+     * Obtient le chemin absolu d'un fichier, en refusant tout chemin qui sortirait du répertoire d'upload
      */
     public Path getFilePath(String relativePath) {
-        return Paths.get(uploadDir).resolve(relativePath);
+        Path racine = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path filePath = racine.resolve(relativePath).normalize();
+        if (!filePath.startsWith(racine) || filePath.equals(racine)) {
+            throw new IllegalArgumentException("Chemin de fichier invalide: " + relativePath);
+        }
+        return filePath;
+    }
+
+    /**
+     * Indique si le nom de fichier a été généré à l'upload et désigne donc toujours le même contenu
+     */
+    public boolean isImmutableFileName(String relativePath) {
+        return NOM_GENERE.matcher(relativePath.substring(relativePath.lastIndexOf('/') + 1)).matches();
     }
 
     /**
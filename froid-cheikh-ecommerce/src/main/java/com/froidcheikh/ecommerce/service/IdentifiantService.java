@@ -0,0 +1,78 @@
+package com.froidcheikh.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Génère les numéros métier (commandes, paiements, suivis, produits) sans aller-retour en base.
+ * Schéma type Snowflake sur 63 bits : 41 bits de millisecondes depuis 2024, 10 bits de nœud, 12 bits de séquence.
+ * Le résultat est écrit en base 36 sur une largeur fixe : "CMD-0QZ8F3K2A0B1C" reste trié dans l'ordre de création.
+ */
+@Service
+public class IdentifiantService {
+
+    private static final long EPOQUE = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int BITS_NOEUD = 10;
+    private static final int BITS_SEQUENCE = 12;
+    private static final long MAX_NOEUD = (1L << BITS_NOEUD) - 1;
+    private static final long MASQUE_SEQUENCE = (1L << BITS_SEQUENCE) - 1;
+    private static final int LARGEUR = Long.toString(Long.MAX_VALUE, Character.MAX_RADIX).length();
+
+    private final long noeud;
+
+    // Dernier état émis : (millisecondes depuis l'époque << BITS_SEQUENCE) | séquence
+    private final AtomicLong dernier = new AtomicLong();
+
+    public IdentifiantService(@Value("${app.identifiants.noeud:0}") long noeud) {
+        if (noeud < 0 || noeud > MAX_NOEUD) {
+            throw new IllegalArgumentException("Le numéro de nœud doit être compris entre 0 et " + MAX_NOEUD);
+        }
+        this.noeud = noeud;
+    }
+
+    public String numeroCommande() {
+        return generer("CMD");
+    }
+
+    public String referencePaiement() {
+        return generer("PAY");
+    }
+
+    public String numeroSuivi() {
+        return generer("TRK");
+    }
+
+    public String codeProduit() {
+        return generer("PRD");
+    }
+
+    public String refProduit() {
+        return generer("REF");
+    }
+
+    public String generer(String prefixe) {
+        String corps = Long.toString(prochainId(), Character.MAX_RADIX).toUpperCase(Locale.ROOT);
+        StringBuilder numero = new StringBuilder(prefixe.length() + 1 + LARGEUR).append(prefixe).append('-');
+        for (int i = corps.length(); i < LARGEUR; i++) {
+            numero.append('0');
+        }
+        return numero.append(corps).toString();
+    }
+
+    /**
+     * Identifiant strictement croissant pour ce nœud. Si la séquence de la milliseconde courante est épuisée
+     * ou si l'horloge recule, on avance sur la milliseconde suivante au lieu d'attendre.
+     */
+    public long prochainId() {
+        long maintenant = (System.currentTimeMillis() - EPOQUE) << BITS_SEQUENCE;
+        long etat = dernier.updateAndGet(precedent -> Math.max(maintenant, precedent + 1));
+
+        long millis = etat >>> BITS_SEQUENCE;
+        long sequence = etat & MASQUE_SEQUENCE;
+        return (millis << (BITS_NOEUD + BITS_SEQUENCE)) | (noeud << BITS_SEQUENCE) | sequence;
+    }
+}
@@ -0,0 +1,248 @@
+package com.froidcheikh.ecommerce.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Déclinaisons d'une image uploadée (vignette, moyenne, grande), générées une fois à l'upload
+ * pour ne pas servir l'original de plusieurs Mo aux pages catalogue.
+ * Format WebP si un encodeur ImageIO WebP est présent dans le classpath, JPEG sinon.
+ * Le décodage se fait sur un pool borné : au-delà de la file d'attente, le thread appelant traite
+ * lui-même l'image, ce qui limite la mémoire occupée par les images décodées.
+ */
+@Service
+@Slf4j
+public class ImageDeriveeService {
+
+    public enum TailleImage {
+        THUMB(150), MEDIUM(600), LARGE(1200);
+
+        private final int cote;
+
+        TailleImage(int cote) {
+            this.cote = cote;
+        }
+
+        public int getCote() {
+            return cote;
+        }
+
+        public String suffixe() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static TailleImage depuis(String valeur) {
+            return Arrays.stream(values())
+                    .filter(taille -> taille.suffixe().equalsIgnoreCase(valeur))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Taille d'image inconnue : " + valeur
+                            + " (valeurs possibles : thumb, medium, large)"));
+        }
+    }
+
+    private static final float QUALITE = 0.82f;
+
+    private final Path racine;
+    private final String format;
+    private final ThreadPoolExecutor pool;
+
+    public ImageDeriveeService(@Value("${app.upload.dir:uploads}") String uploadDir,
+                               @Value("${app.images.workers:2}") int workers,
+                               @Value("${app.images.file-attente:32}") int fileAttente) {
+        this.racine = Paths.get(uploadDir);
+        this.format = ImageIO.getImageWritersByMIMEType("image/webp").hasNext() ? "webp" : "jpg";
+
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileAttente),
+                tache -> {
+                    Thread thread = new Thread(tache, "images-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("🖼️ Déclinaisons d'images au format {} ({} worker(s))", format, workers);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        pool.shutdown();
+    }
+
+    /**
+     * Chemin relatif de la déclinaison d'une image : produits/images/x.png -> produits/images/x_thumb.webp
+     */
+    public String cheminDerive(String cheminRelatif, TailleImage taille) {
+        int point = cheminRelatif.lastIndexOf('.');
+        int separateur = cheminRelatif.lastIndexOf('/');
+        String base = point > separateur ? cheminRelatif.substring(0, point) : cheminRelatif;
+        return base + "_" + taille.suffixe() + "." + format;
+    }
+
+    /**
+     * Génère en parallèle les déclinaisons des images et attend la fin du traitement.
+     * Un échec est journalisé sans faire échouer l'upload : l'original reste servi à la place.
+     */
+    public void generer(Collection<String> cheminsRelatifs) {
+        CompletableFuture.allOf(cheminsRelatifs.stream()
+                        .map(this::genererAsync)
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    /**
+     * Soumet la génération au pool sans l'attendre (le thread appelant la fait lui-même si la file est pleine)
+     */
+    public CompletableFuture<Void> genererAsync(String cheminRelatif) {
+        return CompletableFuture.runAsync(() -> genererSansErreur(cheminRelatif), pool);
+    }
+
+    public void generer(String cheminRelatif) {
+        generer(List.of(cheminRelatif));
+    }
+
+    /**
+     * Supprime les déclinaisons d'une image (l'original est supprimé par FileService)
+     */
+    public void supprimer(String cheminRelatif) {
+        for (TailleImage taille : TailleImage.values()) {
+            try {
+                Files.deleteIfExists(racine.resolve(cheminDerive(cheminRelatif, taille)));
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer la déclinaison {} de {}: {}", taille.suffixe(), cheminRelatif, e.getMessage());
+            }
+        }
+    }
+
+    private void genererSansErreur(String cheminRelatif) {
+        // Contenu déjà uploadé (même empreinte) : ses déclinaisons existent déjà
+        if (Arrays.stream(TailleImage.values())
+                .allMatch(taille -> Files.exists(racine.resolve(cheminDerive(cheminRelatif, taille))))) {
+            return;
+        }
+        try {
+            long debut = System.currentTimeMillis();
+            BufferedImage original = lire(racine.resolve(cheminRelatif));
+            if (original == null) {
+                log.warn("⚠️ Format non décodable, pas de déclinaison pour {}", cheminRelatif);
+                return;
+            }
+            for (TailleImage taille : TailleImage.values()) {
+                ecrire(redimensionner(original, taille.getCote()), racine.resolve(cheminDerive(cheminRelatif, taille)));
+            }
+            log.debug("🖼️ Déclinaisons générées pour {} en {} ms", cheminRelatif, System.currentTimeMillis() - debut);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Échec de la génération des déclinaisons de {}: {}", cheminRelatif, e.getMessage());
+        }
+    }
+
+    // Décodage sous-échantillonné quand l'original dépasse largement la plus grande déclinaison :
+    // une photo de 4000 px n'est jamais décodée en pleine résolution
+    private BufferedImage lire(Path fichier) throws IOException {
+        try (ImageInputStream entree = ImageIO.createImageInputStream(fichier.toFile())) {
+            Iterator<ImageReader> lecteurs = entree != null ? ImageIO.getImageReaders(entree) : null;
+            if (lecteurs == null || !lecteurs.hasNext()) {
+                return null;
+            }
+            ImageReader lecteur = lecteurs.next();
+            try {
+                lecteur.setInput(entree, true, true);
+                int cote = Math.max(lecteur.getWidth(0), lecteur.getHeight(0));
+                int pas = Math.max(1, cote / (2 * TailleImage.LARGE.getCote()));
+                ImageReadParam parametres = lecteur.getDefaultReadParam();
+                parametres.setSourceSubsampling(pas, pas, 0, 0);
+                return lecteur.read(0, parametres);
+            } finally {
+                lecteur.dispose();
+            }
+        }
+    }
+
+    // Réductions successives de moitié puis interpolation bilinéaire ; jamais d'agrandissement.
+    // Le fond est blanc pour les images transparentes, le JPEG n'ayant pas de canal alpha.
+    private BufferedImage redimensionner(BufferedImage source, int cote) {
+        double echelle = Math.min(1.0, (double) cote / Math.max(source.getWidth(), source.getHeight()));
+        int largeurCible = Math.max(1, (int) Math.round(source.getWidth() * echelle));
+        int hauteurCible = Math.max(1, (int) Math.round(source.getHeight() * echelle));
+
+        BufferedImage courante = source;
+        int largeur = source.getWidth();
+        int hauteur = source.getHeight();
+        do {
+            largeur = Math.max(largeurCible, largeur / 2);
+            hauteur = Math.max(hauteurCible, hauteur / 2);
+            BufferedImage etape = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphique = etape.createGraphics();
+            try {
+                graphique.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphique.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphique.setColor(Color.WHITE);
+                graphique.fillRect(0, 0, largeur, hauteur);
+                graphique.drawImage(courante, 0, 0, largeur, hauteur, null);
+            } finally {
+                graphique.dispose();
+            }
+            courante = etape;
+        } while (largeur != largeurCible || hauteur != hauteurCible);
+        return courante;
+    }
+
+    // Écriture dans un fichier temporaire puis déplacement : une déclinaison servie est toujours complète
+    private void ecrire(BufferedImage image, Path destination) throws IOException {
+        ImageWriter ecrivain = ImageIO.getImageWritersBySuffix(format).next();
+        Path temporaire = Files.createTempFile(destination.getParent(), ".derivee-", ".tmp");
+        try {
+            try (ImageOutputStream sortie = ImageIO.createImageOutputStream(temporaire.toFile())) {
+                ecrivain.setOutput(sortie);
+                ImageWriteParam parametres = ecrivain.getDefaultWriteParam();
+                if (parametres.canWriteCompressed()) {
+                    parametres.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    String[] types = parametres.getCompressionTypes();
+                    if (types != null && types.length > 0) {
+                        parametres.setCompressionType(Arrays.stream(types)
+                                .filter(type -> type.toLowerCase(Locale.ROOT).contains("lossy"))
+                                .findFirst()
+                                .orElse(types[0]));
+                    }
+                    parametres.setCompressionQuality(QUALITE);
+                }
+                ecrivain.write(null, new IIOImage(image, null, null), parametres);
+            } finally {
+                ecrivain.dispose();
+            }
+            Files.move(temporaire, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.dto.MarqueDTO;
+import com.froidcheikh.ecommerce.event.MarqueModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.event.StockModifieEvent;
+import com.froidcheikh.ecommerce.repository.MarqueRepository;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalogue des marques de la boutique, tenu en mémoire avec le nombre de produits et de produits disponibles
+ * de chaque marque. Rechargé entièrement (deux requêtes) au démarrage et après toute modification de marque ;
+ * les modifications de produit et de stock ne font qu'ajuster les compteurs, sans requête.
+ * Les DTO publiés sont partagés entre les requêtes : ils ne doivent être que sérialisés, jamais modifiés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarqueCatalogueService {
+
+    private static final Comparator<MarqueDTO> PAR_NOM =
+            Comparator.comparing(MarqueDTO::getNomMarque, String.CASE_INSENSITIVE_ORDER);
+
+    private final MarqueRepository marqueRepository;
+    private final ProduitRepository produitRepository;
+
+    // État de travail, protégé par le verrou de l'instance ; seul le catalogue publié est lu sans verrou
+    private final Map<Long, MarqueDTO> fiches = new HashMap<>();
+    private final Map<Long, EtatProduit> produits = new HashMap<>();
+    private final Map<Long, long[]> compteurs = new HashMap<>();
+
+    private final AtomicReference<Catalogue> catalogue = new AtomicReference<>();
+
+    private record EtatProduit(Long marqueId, boolean disponible) {
+    }
+
+    private record Catalogue(List<MarqueDTO> toutes,
+                             List<MarqueDTO> avecProduitsDisponibles,
+                             Map<Long, MarqueDTO> parId) {
+    }
+
+    public List<MarqueDTO> getToutes() {
+        return catalogue().toutes();
+    }
+
+    public List<MarqueDTO> getAvecProduitsDisponibles() {
+        return catalogue().avecProduitsDisponibles();
+    }
+
+    public long getNombreProduits(Long marqueId) {
+        MarqueDTO marque = catalogue().parId().get(marqueId);
+        return marque != null ? marque.getNombreProduits() : 0L;
+    }
+
+    public long getNombreProduitsDisponibles(Long marqueId) {
+        MarqueDTO marque = catalogue().parId().get(marqueId);
+        return marque != null ? marque.getNombreProduitsDisponibles() : 0L;
+    }
+
+    public String getNom(Long marqueId) {
+        MarqueDTO marque = catalogue().parId().get(marqueId);
+        return marque != null ? marque.getNomMarque() : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        recharger();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMarqueModifiee(MarqueModifieeEvent event) {
+        recharger();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        EtatProduit etat = event.isSuppression() || event.produit().marqueId() == null
+                ? null
+                : new EtatProduit(event.produit().marqueId(), event.produit().disponible());
+        appliquer(event.idProduit(), etat);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        synchronized (this) {
+            EtatProduit actuel = produits.get(event.idProduit());
+            if (actuel != null && actuel.disponible() != event.disponible()) {
+                appliquer(event.idProduit(), new EtatProduit(actuel.marqueId(), event.disponible()));
+            }
+        }
+    }
+
+    public synchronized void recharger() {
+        long debut = System.currentTimeMillis();
+
+        fiches.clear();
+        produits.clear();
+        compteurs.clear();
+
+        for (Object[] ligne : marqueRepository.findAllResumes()) {
+            MarqueDTO fiche = new MarqueDTO();
+            fiche.setIdMarque((Long) ligne[0]);
+            fiche.setNomMarque((String) ligne[1]);
+            fiche.setLogo((String) ligne[2]);
+            fiche.setDescription((String) ligne[3]);
+            fiches.put(fiche.getIdMarque(), fiche);
+        }
+        for (Object[] ligne : produitRepository.findEtatsParMarque()) {
+            EtatProduit etat = new EtatProduit((Long) ligne[1], Boolean.TRUE.equals(ligne[2]));
+            produits.put((Long) ligne[0], etat);
+            compter(etat, 1);
+        }
+
+        publier();
+        log.debug("🏷️ Catalogue des marques rechargé : {} marque(s), {} produit(s) en {} ms",
+                fiches.size(), produits.size(), System.currentTimeMillis() - debut);
+    }
+
+    // L'état reçu est absolu : rejouer un événement déjà pris en compte par un rechargement ne change rien
+    private synchronized void appliquer(Long idProduit, EtatProduit etat) {
+        if (catalogue.get() == null) {
+            recharger();
+            return;
+        }
+        EtatProduit ancien = etat != null ? produits.put(idProduit, etat) : produits.remove(idProduit);
+        if (Objects.equals(ancien, etat)) {
+            return;
+        }
+        compter(ancien, -1);
+        compter(etat, 1);
+        publier();
+    }
+
+    private void compter(EtatProduit etat, int sens) {
+        if (etat == null) {
+            return;
+        }
+        long[] compteur = compteurs.computeIfAbsent(etat.marqueId(), id -> new long[2]);
+        compteur[0] += sens;
+        if (etat.disponible()) {
+            compteur[1] += sens;
+        }
+    }
+
+    // Nouvelles copies des fiches à chaque publication : les listes déjà servies restent inchangées
+    private void publier() {
+        List<MarqueDTO> toutes = new ArrayList<>(fiches.size());
+        List<MarqueDTO> avecProduitsDisponibles = new ArrayList<>();
+        Map<Long, MarqueDTO> parId = new HashMap<>();
+        for (MarqueDTO fiche : fiches.values()) {
+            long[] compteur = compteurs.getOrDefault(fiche.getIdMarque(), new long[2]);
+            MarqueDTO dto = new MarqueDTO(fiche.getIdMarque(), fiche.getNomMarque(), fiche.getLogo(),
+                    fiche.getDescription(), compteur[0], compteur[1]);
+            toutes.add(dto);
+            parId.put(dto.getIdMarque(), dto);
+            if (compteur[1] > 0) {
+                avecProduitsDisponibles.add(dto);
+            }
+        }
+        toutes.sort(PAR_NOM);
+        avecProduitsDisponibles.sort(PAR_NOM);
+
+        catalogue.set(new Catalogue(List.copyOf(toutes), List.copyOf(avecProduitsDisponibles), Map.copyOf(parId)));
+    }
+
+    private Catalogue catalogue() {
+        Catalogue courant = catalogue.get();
+        if (courant == null) {
+            recharger();
+            courant = catalogue.get();
+        }
+        return courant;
+    }
+}
@@ -2,16 +2,20 @@ package com.froidcheikh.ecommerce.service;
 
 import com.froidcheikh.ecommerce.dto.MarqueDTO;
 import com.froidcheikh.ecommerce.entity.Marque;
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.event.MarqueModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
 import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.froidcheikh.ecommerce.mapper.MarqueMapper;
 import com.froidcheikh.ecommerce.repository.MarqueRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,20 +24,19 @@ import java.util.stream.Collectors;
 public class MarqueService {
 
     private final MarqueRepository marqueRepository;
-    private final ModelMapper modelMapper;
+    private final MarqueMapper marqueMapper;
+    private final MarqueCatalogueService marqueCatalogueService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Servies depuis le catalogue en mémoire, sans accès à la base
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<MarqueDTO> getAllMarques() {
-        return marqueRepository.findAllOrderByName()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return marqueCatalogueService.getToutes();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<MarqueDTO> getMarquesWithAvailableProducts() {
-        return marqueRepository.findMarquesWithAvailableProducts()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return marqueCatalogueService.getAvecProduitsDisponibles();
     }
 
     public MarqueDTO getMarqueById(Long id) {
@@ -46,6 +49,7 @@ public class MarqueService {
         Marque marque = convertToEntity(marqueDTO);
         marque = marqueRepository.save(marque);
         log.info("Marque créée avec l'ID : {}", marque.getIdMarque());
+        eventPublisher.publishEvent(new MarqueModifieeEvent(marque.getIdMarque()));
         return convertToDTO(marque);
     }
 
@@ -59,29 +63,34 @@ public class MarqueService {
 
         marque = marqueRepository.save(marque);
         log.info("Marque mise à jour avec l'ID : {}", marque.getIdMarque());
+        eventPublisher.publishEvent(new MarqueModifieeEvent(marque.getIdMarque()));
 
         return convertToDTO(marque);
     }
 
     public void deleteMarque(Long id) {
-        if (!marqueRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Marque non trouvée avec l'ID : " + id);
-        }
-        marqueRepository.deleteById(id);
+        Marque marque = marqueRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Marque non trouvée avec l'ID : " + id));
+
+        // Les produits de la marque sont supprimés en cascade : les index en mémoire doivent les oublier aussi
+        List<Long> produitsSupprimes = marque.getProduits().stream()
+                .map(Produit::getIdProduit)
+                .toList();
+
+        marqueRepository.delete(marque);
         log.info("Marque supprimée avec l'ID : {}", id);
+        produitsSupprimes.forEach(idProduit -> eventPublisher.publishEvent(ProduitModifieEvent.supprime(idProduit)));
+        eventPublisher.publishEvent(new MarqueModifieeEvent(id));
     }
 
     private MarqueDTO convertToDTO(Marque marque) {
-        MarqueDTO dto = modelMapper.map(marque, MarqueDTO.class);
-
-        if (marque.getProduits() != null) {
-            dto.setNombreProduits((long) marque.getProduits().size());
-        }
-
+        MarqueDTO dto = marqueMapper.toDTO(marque);
+        dto.setNombreProduits(marqueCatalogueService.getNombreProduits(marque.getIdMarque()));
+        dto.setNombreProduitsDisponibles(marqueCatalogueService.getNombreProduitsDisponibles(marque.getIdMarque()));
         return dto;
     }
 
     private Marque convertToEntity(MarqueDTO dto) {
-        return modelMapper.map(dto, Marque.class);
+        return marqueMapper.toEntity(dto);
     }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.event.CategorieModifieeEvent;
+import com.froidcheikh.ecommerce.event.MarqueModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.event.StockModifieEvent;
+import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache des fiches produit (ProduitDTO complets) par ID et par référence.
+ * Les DTO sont copiés à la sortie car les contrôleurs les modifient avant de les renvoyer à updateProduit.
+ * Ils embarquent le nom de la catégorie et de la marque : toute modification de catégorie ou de marque vide le cache.
+ */
+@Service
+public class ProduitCacheService {
+
+    private final Cache<Long, ProduitDTO> produitsParId;
+    private final Cache<String, Long> idsParRef;
+    // Référence sous laquelle chaque ID a été résolu, pour invalider idsParRef quand le produit change ou disparaît
+    private final Map<Long, String> refsParId = new ConcurrentHashMap<>();
+
+    public ProduitCacheService(@Value("${app.cache.produits.taille-max:5000}") long tailleMax,
+                               @Value("${app.cache.produits.ttl-minutes:10}") long ttlMinutes) {
+        this.produitsParId = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.idsParRef = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    public ProduitDTO getParId(Long id, Function<Long, ProduitDTO> chargeur) {
+        return copier(produitsParId.get(id, chargeur));
+    }
+
+    /**
+     * Fiches des IDs demandés, dans l'ordre demandé : les absentes du cache sont chargées ensemble par chargeur.
+     * Les IDs inconnus sont ignorés.
+     */
+    public List<ProduitDTO> getParIds(Collection<Long> ids, Function<Set<Long>, Map<Long, ProduitDTO>> chargeur) {
+        List<Long> cles = ids.stream().filter(Objects::nonNull).toList();
+        Map<Long, ProduitDTO> trouves = produitsParId.getAll(cles, manquants -> chargeur.apply(Set.copyOf(manquants)));
+        List<ProduitDTO> produits = new ArrayList<>(trouves.size());
+        for (Long id : cles) {
+            ProduitDTO produit = trouves.get(id);
+            if (produit != null) {
+                produits.add(copier(produit));
+            }
+        }
+        return produits;
+    }
+
+    /**
+     * La référence est d'abord résolue en ID, puis la fiche est chargée par le cache lui-même comme dans getParId :
+     * une invalidation concurrente attend la fin du chargement et ne peut pas être écrasée par une fiche périmée.
+     */
+    public ProduitDTO getParRef(String refProduit, Function<String, Long> resolveur, Function<Long, ProduitDTO> chargeur) {
+        Function<String, Long> resolution = ref -> {
+            Long id = resolveur.apply(ref);
+            refsParId.put(id, ref);
+            return id;
+        };
+        ProduitDTO produit;
+        try {
+            produit = produitsParId.get(idsParRef.get(refProduit, resolution), chargeur);
+        } catch (ResourceNotFoundException e) {
+            // ID en cache d'un produit supprimé entre-temps : la nouvelle résolution échoue avec le message de la référence
+            // ou trouve le produit qui porte désormais cette référence
+            idsParRef.invalidate(refProduit);
+            produit = produitsParId.get(idsParRef.get(refProduit, resolution), chargeur);
+        }
+        // La référence a pu changer depuis la mise en cache de son ID : on la résout à nouveau
+        if (!refProduit.equals(produit.getRefProduit())) {
+            idsParRef.invalidate(refProduit);
+            produit = produitsParId.get(idsParRef.get(refProduit, resolution), chargeur);
+        }
+        return copier(produit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        produitsParId.invalidate(event.idProduit());
+        // Suppression ou changement de référence : l'ancienne référence ne doit plus mener à ce produit
+        String ancienneRef = refsParId.get(event.idProduit());
+        if (ancienneRef != null && (event.isSuppression() || !ancienneRef.equals(event.produit().refProduit()))) {
+            refsParId.remove(event.idProduit(), ancienneRef);
+            idsParRef.invalidate(ancienneRef);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategorieModifiee(CategorieModifieeEvent event) {
+        produitsParId.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMarqueModifiee(MarqueModifieeEvent event) {
+        produitsParId.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        produitsParId.invalidate(event.idProduit());
+    }
+
+    public Map<String, Object> getStatistiques() {
+        CacheStats stats = produitsParId.stats();
+        Map<String, Object> resultat = new LinkedHashMap<>();
+        resultat.put("taille", produitsParId.estimatedSize());
+        resultat.put("hits", stats.hitCount());
+        resultat.put("misses", stats.missCount());
+        resultat.put("tauxHit", stats.hitRate());
+        resultat.put("evictions", stats.evictionCount());
+        resultat.put("chargements", stats.loadSuccessCount());
+        resultat.put("echecsChargement", stats.loadFailureCount());
+        resultat.put("tempsMoyenChargementMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return resultat;
+    }
+
+    private static ProduitDTO copier(ProduitDTO source) {
+        ProduitDTO copie = new ProduitDTO(
+                source.getIdProduit(),
+                source.getNomProduit(),
+                source.getDescriptionProduit(),
+                source.getPrix(),
+                source.getStockDisponible(),
+                source.getRefProduit(),
+                source.getCodeProduit(),
+                source.getGarantie(),
+                source.getLabelEnergie(),
+                source.getPuissanceBTU(),
+                source.getConsommationWatt(),
+                source.getDimensions(),
+                source.getPoids(),
+                source.getFicheTechniquePDF(),
+                source.getListeImages() != null ? new ArrayList<>(source.getListeImages()) : null,
+                source.getVideosOptionnelles() != null ? new ArrayList<>(source.getVideosOptionnelles()) : null,
+                source.getDisponibilite(),
+                source.getDateAjout(),
+                null,
+                null,
+                null
+        );
+        if (source.getCategorie() != null) {
+            copie.setCategorie(new ProduitDTO.CategorieDTO(
+                    source.getCategorie().getIdCategorie(),
+                    source.getCategorie().getNomCategorie()));
+        }
+        if (source.getMarque() != null) {
+            copie.setMarque(new ProduitDTO.MarqueDTO(
+                    source.getMarque().getIdMarque(),
+                    source.getMarque().getNomMarque(),
+                    source.getMarque().getLogo()));
+        }
+        if (source.getAttributs() != null) {
+            copie.setAttributs(source.getAttributs().stream()
+                    .map(a -> new ProduitDTO.AttributProduitDTO(a.getIdAttribut(), a.getNomAttribut(), a.getValeurAttribut()))
+                    .collect(Collectors.toList()));
+        }
+        return copie;
+    }
+}
@@ -0,0 +1,377 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.dto.ProduitFacettesDTO.FacetteDTO;
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.event.ProduitSnapshot;
+import com.froidcheikh.ecommerce.event.StockModifieEvent;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import com.froidcheikh.ecommerce.util.TexteUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Moteur de filtres à facettes en mémoire pour /api/produits/filter.
+ * Chaque produit reçoit un ordinal dense ; chaque valeur de facette (catégorie, marque,
+ * label énergie, tranche de prix) possède un BitSet de ces ordinaux. Un filtre est une
+ * intersection de BitSets et chaque compteur de facette un cardinality().
+ * Les libellés des catégories et des marques sont lus dans l'arbre des catégories et le catalogue
+ * des marques, tenus à jour à chaque renommage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProduitFacetteService {
+
+    // Bornes des tranches de prix en FCFA
+    private static final long[] BORNES_PRIX = {50_000, 150_000, 300_000, 500_000};
+
+    private static final Set<String> TRIS_SUPPORTES = Set.of("prix", "dateAjout", "nomProduit");
+
+    private final ProduitRepository produitRepository;
+    private final CategorieArbreService categorieArbreService;
+    private final MarqueCatalogueService marqueCatalogueService;
+
+    private final Map<Long, Integer> ordinaux = new HashMap<>();
+    private final List<Entree> entrees = new ArrayList<>();
+    private final Deque<Integer> ordinauxLibres = new ArrayDeque<>();
+
+    private final BitSet disponibles = new BitSet();
+    private final Map<Long, BitSet> parCategorie = new HashMap<>();
+    private final Map<Long, BitSet> parMarque = new HashMap<>();
+    private final Map<Produit.LabelEnergie, BitSet> parLabel = new EnumMap<>(Produit.LabelEnergie.class);
+    private final BitSet[] parTranche = nouvellesTranches();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entree(ProduitSnapshot produit, String nomNormalise, int tranche) {
+    }
+
+    public record Criteres(Collection<Long> idsRecherche,
+                           BigDecimal prixMin,
+                           BigDecimal prixMax,
+                           Long categorieId,
+                           Long marqueId,
+                           Produit.LabelEnergie labelEnergie) {
+    }
+
+    public record Resultat(List<Long> ids,
+                           List<FacetteDTO> categories,
+                           List<FacetteDTO> marques,
+                           List<FacetteDTO> labelsEnergie,
+                           List<FacetteDTO> tranchesPrix) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construire() {
+        List<ProduitSnapshot> produits = produitRepository.findAllWithCategorieAndMarque()
+                .stream()
+                .map(ProduitSnapshot::of)
+                .toList();
+
+        lock.writeLock().lock();
+        try {
+            ordinaux.clear();
+            entrees.clear();
+            ordinauxLibres.clear();
+            disponibles.clear();
+            parCategorie.clear();
+            parMarque.clear();
+            parLabel.clear();
+            for (BitSet tranche : parTranche) {
+                tranche.clear();
+            }
+            produits.forEach(this::ajouter);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Moteur de facettes construit : {} produits, {} disponibles",
+                ordinaux.size(), disponibles.cardinality());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        lock.writeLock().lock();
+        try {
+            retirer(event.idProduit());
+            if (!event.isSuppression()) {
+                ajouter(event.produit());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinaux.get(event.idProduit());
+            if (ordinal == null) {
+                return;
+            }
+            Entree entree = entrees.get(ordinal);
+            entrees.set(ordinal, new Entree(
+                    entree.produit().avecStock(event.stockDisponible(), event.disponible()),
+                    entree.nomNormalise(),
+                    entree.tranche()));
+            disponibles.set(ordinal, event.disponible());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean supporteTri(Sort sort) {
+        return sort.stream().allMatch(order -> TRIS_SUPPORTES.contains(order.getProperty()));
+    }
+
+    /**
+     * Applique les filtres et retourne les IDs triés des produits disponibles correspondants.
+     * Les compteurs de chaque facette ignorent le filtre de cette même facette, afin que
+     * le frontend puisse afficher les valeurs alternatives.
+     */
+    public Resultat filtrer(Criteres criteres, Sort sort, boolean avecFacettes) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) disponibles.clone();
+            if (criteres.idsRecherche() != null) {
+                base.and(versBitSet(criteres.idsRecherche()));
+            }
+
+            BitSet filtreCategorie = criteres.categorieId() != null
+                    ? parCategorie.getOrDefault(criteres.categorieId(), new BitSet()) : null;
+            BitSet filtreMarque = criteres.marqueId() != null
+                    ? parMarque.getOrDefault(criteres.marqueId(), new BitSet()) : null;
+            BitSet filtreLabel = criteres.labelEnergie() != null
+                    ? parLabel.getOrDefault(criteres.labelEnergie(), new BitSet()) : null;
+            BitSet filtrePrix = filtrePrix(base, criteres.prixMin(), criteres.prixMax());
+
+            BitSet resultat = intersection(base, filtreCategorie, filtreMarque, filtreLabel, filtrePrix);
+            List<Long> ids = trier(resultat, sort);
+
+            if (!avecFacettes) {
+                return new Resultat(ids, List.of(), List.of(), List.of(), List.of());
+            }
+
+            return new Resultat(
+                    ids,
+                    compter(parCategorie, intersection(base, filtreMarque, filtreLabel, filtrePrix),
+                            categorieArbreService::getNom),
+                    compter(parMarque, intersection(base, filtreCategorie, filtreLabel, filtrePrix),
+                            marqueCatalogueService::getNom),
+                    compterLabels(intersection(base, filtreCategorie, filtreMarque, filtrePrix)),
+                    compterTranches(intersection(base, filtreCategorie, filtreMarque, filtreLabel))
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============== MAINTENANCE DE L'INDEX ==============
+
+    private void ajouter(ProduitSnapshot produit) {
+        int ordinal = ordinauxLibres.isEmpty() ? entrees.size() : ordinauxLibres.pop();
+        Entree entree = new Entree(produit, TexteUtils.normaliser(produit.nomProduit()), tranche(produit.prix()));
+        if (ordinal == entrees.size()) {
+            entrees.add(entree);
+        } else {
+            entrees.set(ordinal, entree);
+        }
+        ordinaux.put(produit.idProduit(), ordinal);
+
+        disponibles.set(ordinal, produit.disponible());
+        if (produit.categorieId() != null) {
+            parCategorie.computeIfAbsent(produit.categorieId(), id -> new BitSet()).set(ordinal);
+        }
+        if (produit.marqueId() != null) {
+            parMarque.computeIfAbsent(produit.marqueId(), id -> new BitSet()).set(ordinal);
+        }
+        if (produit.labelEnergie() != null) {
+            parLabel.computeIfAbsent(produit.labelEnergie(), label -> new BitSet()).set(ordinal);
+        }
+        if (entree.tranche() >= 0) {
+            parTranche[entree.tranche()].set(ordinal);
+        }
+    }
+
+    private void retirer(Long idProduit) {
+        Integer ordinal = ordinaux.remove(idProduit);
+        if (ordinal == null) {
+            return;
+        }
+        Entree entree = entrees.get(ordinal);
+        ProduitSnapshot produit = entree.produit();
+
+        disponibles.clear(ordinal);
+        if (produit.categorieId() != null) {
+            parCategorie.get(produit.categorieId()).clear(ordinal);
+        }
+        if (produit.marqueId() != null) {
+            parMarque.get(produit.marqueId()).clear(ordinal);
+        }
+        if (produit.labelEnergie() != null) {
+            parLabel.get(produit.labelEnergie()).clear(ordinal);
+        }
+        if (entree.tranche() >= 0) {
+            parTranche[entree.tranche()].clear(ordinal);
+        }
+
+        entrees.set(ordinal, null);
+        ordinauxLibres.push(ordinal);
+    }
+
+    // ============== MÉTHODES UTILITAIRES ==============
+
+    private BitSet versBitSet(Collection<Long> ids) {
+        BitSet bits = new BitSet();
+        for (Long id : ids) {
+            Integer ordinal = ordinaux.get(id);
+            if (ordinal != null) {
+                bits.set(ordinal);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet filtrePrix(BitSet base, BigDecimal prixMin, BigDecimal prixMax) {
+        if (prixMin == null && prixMax == null) {
+            return null;
+        }
+        BitSet bits = new BitSet();
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            BigDecimal prix = entrees.get(i).produit().prix();
+            if (prix != null
+                    && (prixMin == null || prix.compareTo(prixMin) >= 0)
+                    && (prixMax == null || prix.compareTo(prixMax) <= 0)) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static BitSet intersection(BitSet base, BitSet... filtres) {
+        BitSet resultat = (BitSet) base.clone();
+        for (BitSet filtre : filtres) {
+            if (filtre != null) {
+                resultat.and(filtre);
+            }
+        }
+        return resultat;
+    }
+
+    private List<Long> trier(BitSet resultat, Sort sort) {
+        List<Entree> selection = new ArrayList<>(resultat.cardinality());
+        for (int i = resultat.nextSetBit(0); i >= 0; i = resultat.nextSetBit(i + 1)) {
+            selection.add(entrees.get(i));
+        }
+
+        Comparator<Entree> comparateur = null;
+        for (Sort.Order order : sort.isSorted() ? sort : Sort.by(Sort.Direction.DESC, "dateAjout")) {
+            Comparator<Entree> critere = switch (order.getProperty()) {
+                case "prix" -> Comparator.comparing(e -> e.produit().prix(),
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "nomProduit" -> Comparator.comparing(Entree::nomNormalise);
+                default -> Comparator.comparing(e -> e.produit().dateAjout(),
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+            };
+            if (order.isDescending()) {
+                critere = critere.reversed();
+            }
+            comparateur = comparateur == null ? critere : comparateur.thenComparing(critere);
+        }
+        selection.sort(comparateur.thenComparing(e -> e.produit().idProduit(), Comparator.reverseOrder()));
+
+        return selection.stream().map(e -> e.produit().idProduit()).toList();
+    }
+
+    private static List<FacetteDTO> compter(Map<Long, BitSet> facette, BitSet base, Function<Long, String> libelles) {
+        List<FacetteDTO> resultats = new ArrayList<>();
+        facette.forEach((id, bits) -> {
+            long nombre = compterIntersection(base, bits);
+            if (nombre > 0) {
+                resultats.add(new FacetteDTO(String.valueOf(id), libelles.apply(id), nombre));
+            }
+        });
+        resultats.sort(Comparator.comparing(FacetteDTO::getNombre).reversed()
+                .thenComparing(FacetteDTO::getLibelle, Comparator.nullsLast(Comparator.naturalOrder())));
+        return resultats;
+    }
+
+    private List<FacetteDTO> compterLabels(BitSet base) {
+        List<FacetteDTO> resultats = new ArrayList<>();
+        parLabel.forEach((label, bits) -> {
+            long nombre = compterIntersection(base, bits);
+            if (nombre > 0) {
+                resultats.add(new FacetteDTO(label.name(), label.name(), nombre));
+            }
+        });
+        return resultats;
+    }
+
+    private List<FacetteDTO> compterTranches(BitSet base) {
+        List<FacetteDTO> resultats = new ArrayList<>();
+        for (int i = 0; i < parTranche.length; i++) {
+            long nombre = compterIntersection(base, parTranche[i]);
+            if (nombre > 0) {
+                String libelle = libelleTranche(i);
+                resultats.add(new FacetteDTO(libelle, libelle, nombre));
+            }
+        }
+        return resultats;
+    }
+
+    private static long compterIntersection(BitSet a, BitSet b) {
+        BitSet copie = (BitSet) a.clone();
+        copie.and(b);
+        return copie.cardinality();
+    }
+
+    private static BitSet[] nouvellesTranches() {
+        BitSet[] tranches = new BitSet[BORNES_PRIX.length + 1];
+        for (int i = 0; i < tranches.length; i++) {
+            tranches[i] = new BitSet();
+        }
+        return tranches;
+    }
+
+    private static int tranche(BigDecimal prix) {
+        if (prix == null) {
+            return -1;
+        }
+        int tranche = 0;
+        while (tranche < BORNES_PRIX.length && prix.compareTo(BigDecimal.valueOf(BORNES_PRIX[tranche])) >= 0) {
+            tranche++;
+        }
+        return tranche;
+    }
+
+    private static String libelleTranche(int tranche) {
+        if (tranche == BORNES_PRIX.length) {
+            return BORNES_PRIX[tranche - 1] + "+";
+        }
+        long min = tranche == 0 ? 0 : BORNES_PRIX[tranche - 1];
+        return min + "-" + BORNES_PRIX[tranche];
+    }
+}
@@ -0,0 +1,265 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.event.CategorieModifieeEvent;
+import com.froidcheikh.ecommerce.event.MarqueModifieeEvent;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.event.ProduitSnapshot;
+import com.froidcheikh.ecommerce.event.StockModifieEvent;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import com.froidcheikh.ecommerce.util.TexteUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des produits, utilisé par /api/produits/search.
+ * Les termes sont normalisés (minuscules, sans accents) et pondérés selon le champ d'origine.
+ * Comme l'ancien LIKE '%mot%', un mot recherché peut apparaître n'importe où dans un terme ("frigo" trouve
+ * "superfrigo") : les termes candidats sont trouvés par un index de trigrammes sur le dictionnaire.
+ * Les noms de catégorie et de marque faisant partie des termes, les produits d'une catégorie ou d'une marque
+ * modifiée sont réindexés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProduitSearchService {
+
+    private static final int POIDS_NOM = 8;
+    private static final int POIDS_REF = 6;
+    private static final int POIDS_MARQUE = 4;
+    private static final int POIDS_CATEGORIE = 3;
+    private static final int POIDS_DESCRIPTION = 1;
+
+    private static final int TAILLE_TRIGRAMME = 3;
+
+    private final ProduitRepository produitRepository;
+
+    // terme -> (idProduit -> poids)
+    private final NavigableMap<String, Map<Long, Integer>> index = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // trigramme -> termes du dictionnaire qui le contiennent
+    private final Map<String, Set<String>> termesParTrigramme = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Document(Map<String, Integer> termes, boolean disponible, String nomNormalise) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construireIndex() {
+        List<ProduitSnapshot> produits = produitRepository.findAllWithCategorieAndMarque()
+                .stream()
+                .map(ProduitSnapshot::of)
+                .toList();
+
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            documents.clear();
+            termesParTrigramme.clear();
+            produits.forEach(this::indexer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Index de recherche construit : {} produits, {} termes", documents.size(), index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategorieModifiee(CategorieModifieeEvent event) {
+        reindexer(produitRepository.findByCategorieWithCategorieAndMarque(event.idCategorie()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMarqueModifiee(MarqueModifieeEvent event) {
+        reindexer(produitRepository.findByMarqueWithCategorieAndMarque(event.idMarque()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        lock.writeLock().lock();
+        try {
+            retirer(event.idProduit());
+            if (!event.isSuppression()) {
+                indexer(event.produit());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(event.idProduit());
+            if (document != null) {
+                documents.put(event.idProduit(),
+                        new Document(document.termes(), event.disponible(), document.nomNormalise()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les IDs des produits disponibles correspondant à tous les mots de la recherche,
+     * du plus pertinent au moins pertinent. Chaque mot peut apparaître au début ou au milieu d'un terme.
+     */
+    public List<Long> rechercher(String recherche) {
+        List<String> motsRecherche = TexteUtils.tokeniser(recherche);
+        if (motsRecherche.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String mot : motsRecherche) {
+                Map<Long, Integer> scoresMot = scorerMot(mot);
+                if (scores == null) {
+                    scores = scoresMot;
+                } else {
+                    scores.keySet().retainAll(scoresMot.keySet());
+                    scores.replaceAll((id, score) -> score + scoresMot.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            String rechercheNormalisee = TexteUtils.normaliser(recherche).trim();
+            List<Map.Entry<Long, Integer>> resultats = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                Document document = documents.get(entry.getKey());
+                if (document == null || !document.disponible()) {
+                    continue;
+                }
+                int bonus = document.nomNormalise().startsWith(rechercheNormalisee) ? POIDS_NOM * 2 : 0;
+                resultats.add(Map.entry(entry.getKey(), entry.getValue() + bonus));
+            }
+
+            resultats.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+            return resultats.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Correspondance exacte : poids x4, en début de terme : x2, au milieu d'un terme : x1
+    private Map<Long, Integer> scorerMot(String mot) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (String terme : termesContenant(mot)) {
+            int multiplicateur = terme.equals(mot) ? 4 : terme.startsWith(mot) ? 2 : 1;
+            index.get(terme).forEach((id, poids) -> scores.merge(id, poids * multiplicateur, Math::max));
+        }
+        return scores;
+    }
+
+    // Les termes candidats sont ceux du trigramme le plus rare du mot ; un mot trop court pour un trigramme
+    // est cherché dans tout le dictionnaire
+    private Collection<String> termesContenant(String mot) {
+        Collection<String> candidats = index.keySet();
+        for (String trigramme : trigrammes(mot)) {
+            Set<String> termes = termesParTrigramme.get(trigramme);
+            if (termes == null) {
+                return List.of();
+            }
+            if (termes.size() < candidats.size()) {
+                candidats = termes;
+            }
+        }
+        return candidats.stream().filter(terme -> terme.contains(mot)).toList();
+    }
+
+    private void reindexer(List<Produit> produits) {
+        List<ProduitSnapshot> snapshots = produits.stream().map(ProduitSnapshot::of).toList();
+        lock.writeLock().lock();
+        try {
+            for (ProduitSnapshot produit : snapshots) {
+                retirer(produit.idProduit());
+                indexer(produit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Index de recherche : {} produit(s) réindexé(s)", snapshots.size());
+    }
+
+    private void indexer(ProduitSnapshot produit) {
+        Map<String, Integer> termes = new HashMap<>();
+        ajouterTermes(termes, produit.nomProduit(), POIDS_NOM);
+        ajouterTermes(termes, produit.refProduit(), POIDS_REF);
+        ajouterTermes(termes, produit.nomMarque(), POIDS_MARQUE);
+        ajouterTermes(termes, produit.nomCategorie(), POIDS_CATEGORIE);
+        ajouterTermes(termes, produit.descriptionProduit(), POIDS_DESCRIPTION);
+
+        termes.forEach((terme, poids) -> index.computeIfAbsent(terme, nouveau -> {
+            trigrammes(nouveau).forEach(trigramme ->
+                    termesParTrigramme.computeIfAbsent(trigramme, t -> new HashSet<>()).add(nouveau));
+            return new HashMap<>();
+        }).put(produit.idProduit(), poids));
+        documents.put(produit.idProduit(), new Document(
+                termes, produit.disponible(), TexteUtils.normaliser(produit.nomProduit())));
+    }
+
+    private void retirer(Long idProduit) {
+        Document ancien = documents.remove(idProduit);
+        if (ancien == null) {
+            return;
+        }
+        for (String terme : ancien.termes().keySet()) {
+            Map<Long, Integer> postings = index.get(terme);
+            if (postings != null) {
+                postings.remove(idProduit);
+                if (postings.isEmpty()) {
+                    index.remove(terme);
+                    retirerTrigrammes(terme);
+                }
+            }
+        }
+    }
+
+    private void retirerTrigrammes(String terme) {
+        for (String trigramme : trigrammes(terme)) {
+            Set<String> termes = termesParTrigramme.get(trigramme);
+            if (termes != null) {
+                termes.remove(terme);
+                if (termes.isEmpty()) {
+                    termesParTrigramme.remove(trigramme);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrammes(String terme) {
+        Set<String> trigrammes = new HashSet<>();
+        for (int i = 0; i + TAILLE_TRIGRAMME <= terme.length(); i++) {
+            trigrammes.add(terme.substring(i, i + TAILLE_TRIGRAMME));
+        }
+        return trigrammes;
+    }
+
+    private static void ajouterTermes(Map<String, Integer> termes, String texte, int poids) {
+        for (String terme : TexteUtils.tokeniser(texte)) {
+            termes.merge(terme, poids, Math::max);
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.froidcheikh.ecommerce.service;
 
 import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.dto.PageCurseurDTO;
+import com.froidcheikh.ecommerce.dto.ProduitFacettesDTO;
 import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.event.ProduitModifieEvent;
+import com.froidcheikh.ecommerce.event.ProduitSnapshot;
 import com.froidcheikh.ecommerce.exception.ResourceNotFoundException;
+import com.froidcheikh.ecommerce.mapper.ProduitMapper;
 import com.froidcheikh.ecommerce.repository.ProduitRepository;
 import com.froidcheikh.ecommerce.repository.CategorieRepository;
 import com.froidcheikh.ecommerce.repository.MarqueRepository;
+import com.froidcheikh.ecommerce.util.Curseur;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +40,12 @@ public class ProduitService {
     private final ProduitRepository produitRepository;
     private final CategorieRepository categorieRepository;
     private final MarqueRepository marqueRepository;
-    private final ModelMapper modelMapper;
+    private final ProduitMapper produitMapper;
+    private final ProduitSearchService produitSearchService;
+    private final ProduitFacetteService produitFacetteService;
+    private final ProduitCacheService produitCacheService;
+    private final IdentifiantService identifiantService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<ProduitDTO> getAllProduits(Pageable pageable) {
         return produitRepository.findByDisponibiliteTrue(pageable)
@@ -37,14 +53,19 @@ public class ProduitService {
     }
 
     public ProduitDTO getProduitById(Long id) {
-        Produit produit = produitRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID : " + id));
-        return convertToDTO(produit);
+        return produitCacheService.getParId(id, this::chargerProduit);
     }
 
     public ProduitDTO getProduitByRef(String refProduit) {
-        Produit produit = produitRepository.findByRefProduit(refProduit)
-                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec la référence : " + refProduit));
+        return produitCacheService.getParRef(refProduit,
+                ref -> produitRepository.findIdByRefProduit(ref)
+                        .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec la référence : " + ref)),
+                this::chargerProduit);
+    }
+
+    private ProduitDTO chargerProduit(Long idProduit) {
+        Produit produit = produitRepository.findById(idProduit)
+                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID : " + idProduit));
         return convertToDTO(produit);
     }
 
@@ -59,8 +80,12 @@ public class ProduitService {
     }
 
     public Page<ProduitDTO> searchProduits(String searchTerm, Pageable pageable) {
-        return produitRepository.findBySearchTerm(searchTerm, pageable)
-                .map(this::convertToDTO);
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return getAllProduits(pageable);
+        }
+
+        // Résultats classés par pertinence depuis l'index en mémoire, seule la page est chargée en base
+        return chargerPage(produitSearchService.rechercher(searchTerm), pageable);
     }
 
     public Page<ProduitDTO> getProduitsWithFilters(
@@ -71,8 +96,40 @@ public class ProduitService {
             Long marqueId,
             Pageable pageable) {
 
-        return produitRepository.findWithFilters(nomProduit, prixMin, prixMax, categorieId, marqueId, pageable)
-                .map(this::convertToDTO);
+        // Tri sur un champ non géré par le moteur de facettes : requête classique
+        if (!produitFacetteService.supporteTri(pageable.getSort())) {
+            return produitRepository.findWithFilters(nomProduit, prixMin, prixMax, categorieId, marqueId, pageable)
+                    .map(this::convertToDTO);
+        }
+
+        ProduitFacetteService.Resultat resultat = produitFacetteService.filtrer(
+                criteres(nomProduit, prixMin, prixMax, categorieId, marqueId, null), pageable.getSort(), false);
+        return chargerPage(resultat.ids(), pageable);
+    }
+
+    public ProduitFacettesDTO getProduitsAvecFacettes(
+            String nomProduit,
+            BigDecimal prixMin,
+            BigDecimal prixMax,
+            Long categorieId,
+            Long marqueId,
+            Produit.LabelEnergie labelEnergie,
+            Pageable pageable) {
+
+        if (!produitFacetteService.supporteTri(pageable.getSort())) {
+            throw new RuntimeException("Tri non supporté pour les facettes : " + pageable.getSort());
+        }
+
+        ProduitFacetteService.Resultat resultat = produitFacetteService.filtrer(
+                criteres(nomProduit, prixMin, prixMax, categorieId, marqueId, labelEnergie), pageable.getSort(), true);
+
+        return new ProduitFacettesDTO(
+                chargerPage(resultat.ids(), pageable),
+                resultat.categories(),
+                resultat.marques(),
+                resultat.labelsEnergie(),
+                resultat.tranchesPrix()
+        );
     }
 
     public Page<ProduitDTO> getLatestProduits(Pageable pageable) {
@@ -80,11 +137,29 @@ public class ProduitService {
                 .map(this::convertToDTO);
     }
 
+    public PageCurseurDTO<ProduitDTO> getProduitsCurseur(String curseur, int taille) {
+        Curseur position = Curseur.decoder(curseur);
+        Pageable pageable = PageRequest.of(0, taille);
+        Slice<Produit> produits = position == null
+                ? produitRepository.findDisponiblesPremierePage(pageable)
+                : produitRepository.findDisponiblesApres(position.date(), position.id(), pageable);
+        return versPageCurseur(produits);
+    }
+
+    public PageCurseurDTO<ProduitDTO> getLatestProduitsCurseur(String curseur, int taille) {
+        Curseur position = Curseur.decoder(curseur);
+        Pageable pageable = PageRequest.of(0, taille);
+        Slice<Produit> produits = position == null
+                ? produitRepository.findLatestPremierePage(pageable)
+                : produitRepository.findLatestApres(position.date(), position.id(), pageable);
+        return versPageCurseur(produits);
+    }
+
+    // Passe par le cache des fiches : seuls les produits absents du cache sont lus, en une requête
     public List<ProduitDTO> getProduitsById(List<Long> ids) {
-        return produitRepository.findByIdIn(ids)
+        return produitCacheService.getParIds(ids, manquants -> produitRepository.findByIdIn(new ArrayList<>(manquants))
                 .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(Produit::getIdProduit, this::convertToDTO)));
     }
     public ProduitDTO ajouterImages(Long produitId, List<String> nouvellesImages) {
         Produit produit = produitRepository.findById(produitId)
@@ -98,6 +173,7 @@ public class ProduitService {
         produit.setListeImages(imagesExistantes);
 
         produit = produitRepository.save(produit);
+        publierModification(produit);
         log.info("📷 Images ajoutées au produit {}: {} (Total: {})",
                 produitId, nouvellesImages, imagesExistantes.size());
 
@@ -114,6 +190,7 @@ public class ProduitService {
             if (images.remove(imagePath)) {
                 produit.setListeImages(images);
                 produit = produitRepository.save(produit);
+                publierModification(produit);
                 log.info("🗑️ Image supprimée du produit {}: {}", produitId, imagePath);
             }
         }
@@ -126,13 +203,14 @@ public class ProduitService {
 
         // Générer automatiquement refProduit et codeProduit si non fournis
         if (produit.getRefProduit() == null) {
-            produit.setRefProduit(generateRefProduit());
+            produit.setRefProduit(identifiantService.refProduit());
         }
         if (produit.getCodeProduit() == null) {
-            produit.setCodeProduit(generateCodeProduit());
+            produit.setCodeProduit(identifiantService.codeProduit());
         }
 
         produit = produitRepository.save(produit);
+        publierModification(produit);
         log.info("Produit créé avec l'ID : {}", produit.getIdProduit());
 
         return convertToDTO(produit);
@@ -177,6 +255,7 @@ public class ProduitService {
 
         // Sauvegarde
         produit = produitRepository.save(produit);
+        publierModification(produit);
         log.info("✅ Produit mis à jour avec l'ID : {}", produit.getIdProduit());
 
         return convertToDTO(produit);
@@ -187,6 +266,7 @@ public class ProduitService {
             throw new ResourceNotFoundException("Produit non trouvé avec l'ID : " + id);
         }
         produitRepository.deleteById(id);
+        eventPublisher.publishEvent(ProduitModifieEvent.supprime(id));
         log.info("Produit supprimé avec l'ID : {}", id);
     }
 
@@ -197,6 +277,7 @@ public class ProduitService {
         produit.setStockDisponible(nouvelleQuantite);
         produit.setDisponibilite(nouvelleQuantite > 0);
         produitRepository.save(produit);
+        publierModification(produit);
 
         log.info("Stock mis à jour pour le produit {} : {}", produitId, nouvelleQuantite);
     }
@@ -215,37 +296,60 @@ public class ProduitService {
                 .collect(Collectors.toList());
     }
 
-    private String generateRefProduit() {
-        return "REF-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private ProduitFacetteService.Criteres criteres(String nomProduit, BigDecimal prixMin, BigDecimal prixMax,
+                                                     Long categorieId, Long marqueId,
+                                                     Produit.LabelEnergie labelEnergie) {
+        List<Long> idsRecherche = nomProduit == null || nomProduit.isBlank()
+                ? null
+                : produitSearchService.rechercher(nomProduit);
+        return new ProduitFacetteService.Criteres(idsRecherche, prixMin, prixMax, categorieId, marqueId, labelEnergie);
     }
 
-    private String generateCodeProduit() {
-        return "PRD-" + System.currentTimeMillis();
-    }
+    // Charge uniquement la page demandée d'une liste d'IDs déjà triée, en conservant l'ordre
+    private Page<ProduitDTO> chargerPage(List<Long> ids, Pageable pageable) {
+        int debut = (int) Math.min(pageable.getOffset(), ids.size());
+        int fin = Math.min(debut + pageable.getPageSize(), ids.size());
+        List<Long> idsPage = ids.subList(debut, fin);
 
-    private ProduitDTO convertToDTO(Produit produit) {
-        ProduitDTO dto = modelMapper.map(produit, ProduitDTO.class);
+        Map<Long, Produit> produits = idsPage.isEmpty() ? Map.of() : produitRepository.findByIdIn(idsPage)
+                .stream()
+                .collect(Collectors.toMap(Produit::getIdProduit, Function.identity()));
 
-        if (produit.getCategorie() != null) {
-            dto.setCategorie(new ProduitDTO.CategorieDTO(
-                    produit.getCategorie().getIdCategorie(),
-                    produit.getCategorie().getNomCategorie()
-            ));
-        }
+        List<ProduitDTO> contenu = idsPage.stream()
+                .map(produits::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(contenu, pageable, ids.size());
+    }
 
-        if (produit.getMarque() != null) {
-            dto.setMarque(new ProduitDTO.MarqueDTO(
-                    produit.getMarque().getIdMarque(),
-                    produit.getMarque().getNomMarque(),
-                    produit.getMarque().getLogo()
-            ));
+    private PageCurseurDTO<ProduitDTO> versPageCurseur(Slice<Produit> produits) {
+        List<Produit> contenu = produits.getContent();
+        String curseurSuivant = null;
+        if (produits.hasNext() && !contenu.isEmpty()) {
+            Produit dernier = contenu.get(contenu.size() - 1);
+            curseurSuivant = new Curseur(dernier.getDateAjout(), dernier.getIdProduit()).encoder();
         }
+        return new PageCurseurDTO<>(
+                contenu.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                contenu.size(),
+                curseurSuivant,
+                produits.hasNext()
+        );
+    }
 
-        return dto;
+    // Notifie les index en mémoire ; appliqué après le commit de la transaction
+    private void publierModification(Produit produit) {
+        eventPublisher.publishEvent(new ProduitModifieEvent(produit.getIdProduit(), ProduitSnapshot.of(produit)));
+    }
+
+    private ProduitDTO convertToDTO(Produit produit) {
+        return produitMapper.toDTO(produit);
     }
 
     private Produit convertToEntity(ProduitDTO dto) {
-        Produit produit = modelMapper.map(dto, Produit.class);
+        Produit produit = produitMapper.toEntity(dto);
 
         if (dto.getCategorie() != null) {
             produit.setCategorie(categorieRepository.findById(dto.getCategorie().getIdCategorie()).orElse(null));
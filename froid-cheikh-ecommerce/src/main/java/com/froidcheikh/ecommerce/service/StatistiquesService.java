@@ -1,13 +1,22 @@
 package com.froidcheikh.ecommerce.service;
 
+import com.froidcheikh.ecommerce.dto.VentesDTO;
+import com.froidcheikh.ecommerce.entity.VenteJournaliere;
 import com.froidcheikh.ecommerce.repository.CommandeRepository;
 import com.froidcheikh.ecommerce.repository.ClientRepository;
 import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import com.froidcheikh.ecommerce.repository.VenteJournaliereRepository;
+import com.froidcheikh.ecommerce.repository.VenteProduitJournaliereRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,24 +26,21 @@ import java.util.Map;
 @Slf4j
 public class StatistiquesService {
 
+    private static final int NOMBRE_PRODUITS_POPULAIRES = 10;
+
+    // Une ligne par jour est renvoyée, jours sans vente compris : au-delà de trois ans la réponse n'a plus de sens
+    private static final long NOMBRE_JOURS_MAX = 3 * 366;
+
     private final CommandeRepository commandeRepository;
     private final ClientRepository clientRepository;
     private final ProduitRepository produitRepository;
+    private final TableauDeBordMetriques tableauDeBordMetriques;
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final VenteProduitJournaliereRepository venteProduitJournaliereRepository;
 
     public Map<String, Object> getStatistiquesGenerales() {
-        Map<String, Object> stats = new HashMap<>();
-
-        LocalDateTime debutMois = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime debutJour = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-
-        stats.put("totalCommandes", commandeRepository.count());
-        stats.put("commandesDuJour", commandeRepository.countCommandesSince(debutJour));
-        stats.put("commandesDuMois", commandeRepository.countCommandesSince(debutMois));
-        stats.put("totalClients", clientRepository.count());
-        stats.put("totalProduits", produitRepository.count());
-        stats.put("produitsStockFaible", produitRepository.findByStockDisponibleLessThan(5).size());
-
-        return stats;
+        // Compteurs maintenus en mémoire : aucune requête à chaque rafraîchissement du tableau de bord
+        return tableauDeBordMetriques.getStatistiquesGenerales();
     }
 
     public Map<String, Object> getStatistiquesDetaillees(String periode) {
@@ -49,18 +55,89 @@ public class StatistiquesService {
         return List.of(); // Placeholder
     }
 
-    public List<Object> getVentesParJour(int nombreJours) {
-        // Implémentation pour les ventes par jour
-        return List.of(); // Placeholder
+    /**
+     * Ventes des N derniers jours (aujourd'hui inclus), jours sans vente compris
+     */
+    public List<VentesDTO.VenteJourDTO> getVentesParJour(int nombreJours) {
+        if (nombreJours > NOMBRE_JOURS_MAX) {
+            throw new RuntimeException("La période demandée ne peut pas dépasser " + NOMBRE_JOURS_MAX + " jours");
+        }
+        LocalDate fin = LocalDate.now();
+        return ventesParJour(fin.minusDays(Math.max(nombreJours, 1) - 1L), fin);
     }
 
-    public Object getRapportVentes(String dateDebut, String dateFin) {
-        // Implémentation du rapport de ventes
-        return new Object(); // Placeholder
+    public VentesDTO.RapportVentesDTO getRapportVentes(String dateDebut, String dateFin) {
+        LocalDate debut = parserDate(dateDebut);
+        LocalDate fin = parserDate(dateFin);
+        if (debut.isAfter(fin)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+        if (ChronoUnit.DAYS.between(debut, fin) >= NOMBRE_JOURS_MAX) {
+            throw new RuntimeException("La période demandée ne peut pas dépasser " + NOMBRE_JOURS_MAX + " jours");
+        }
+
+        List<VentesDTO.VenteJourDTO> jours = ventesParJour(debut, fin);
+        long nombreCommandes = 0;
+        long unitesVendues = 0;
+        long nombreAnnulations = 0;
+        BigDecimal chiffreAffaires = BigDecimal.ZERO;
+        for (VentesDTO.VenteJourDTO jour : jours) {
+            nombreCommandes += jour.getNombreCommandes();
+            unitesVendues += jour.getUnitesVendues();
+            nombreAnnulations += jour.getNombreAnnulations();
+            chiffreAffaires = chiffreAffaires.add(jour.getChiffreAffaires());
+        }
+
+        long commandesValides = nombreCommandes - nombreAnnulations;
+        BigDecimal panierMoyen = commandesValides > 0
+                ? chiffreAffaires.divide(BigDecimal.valueOf(commandesValides), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+
+        return new VentesDTO.RapportVentesDTO(debut, fin, nombreCommandes, chiffreAffaires, unitesVendues,
+                nombreAnnulations, panierMoyen, jours, produitsPopulaires(debut, fin));
     }
 
-    public List<Object> getProduitsPopulaires(int jours) {
-        // Implémentation des produits populaires
-        return List.of(); // Placeholder
+    public List<VentesDTO.ProduitPopulaireDTO> getProduitsPopulaires(int jours) {
+        LocalDate fin = LocalDate.now();
+        return produitsPopulaires(fin.minusDays(Math.max(jours, 1) - 1L), fin);
+    }
+
+    private List<VentesDTO.VenteJourDTO> ventesParJour(LocalDate debut, LocalDate fin) {
+        Map<LocalDate, VenteJournaliere> parJour = new HashMap<>();
+        for (VenteJournaliere vente : venteJournaliereRepository.findByJourBetweenOrderByJourAsc(debut, fin)) {
+            parJour.put(vente.getJour(), vente);
+        }
+
+        List<VentesDTO.VenteJourDTO> resultat = new ArrayList<>();
+        for (LocalDate jour = debut; !jour.isAfter(fin); jour = jour.plusDays(1)) {
+            VenteJournaliere vente = parJour.get(jour);
+            resultat.add(vente == null
+                    ? new VentesDTO.VenteJourDTO(jour, 0L, BigDecimal.ZERO, 0L, 0L)
+                    : new VentesDTO.VenteJourDTO(jour, vente.getNombreCommandes(), vente.getChiffreAffaires(),
+                            vente.getUnitesVendues(), vente.getNombreAnnulations()));
+        }
+        return resultat;
+    }
+
+    private List<VentesDTO.ProduitPopulaireDTO> produitsPopulaires(LocalDate debut, LocalDate fin) {
+        return venteProduitJournaliereRepository
+                .findProduitsPopulaires(debut, fin, PageRequest.of(0, NOMBRE_PRODUITS_POPULAIRES))
+                .stream()
+                .map(ligne -> new VentesDTO.ProduitPopulaireDTO(
+                        (Long) ligne[0],
+                        (String) ligne[1],
+                        (String) ligne[2],
+                        ((Number) ligne[3]).longValue(),
+                        (BigDecimal) ligne[4],
+                        ((Number) ligne[5]).longValue()))
+                .toList();
+    }
+
+    private static LocalDate parserDate(String date) {
+        try {
+            return LocalDate.parse(date.length() > 10 ? date.substring(0, 10) : date);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Format de date invalide (attendu AAAA-MM-JJ) : " + date);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.event.StockModifieEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Réservation atomique du stock lors de la création d'une commande.
+ * Chaque ligne est un UPDATE conditionnel (stock suffisant et produit disponible) ; toutes les lignes
+ * partent dans un seul batch JDBC, triées par ID produit pour que deux commandes concurrentes
+ * verrouillent les lignes dans le même ordre et ne puissent pas s'interbloquer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private static final String SQL_RESERVER =
+            "UPDATE produits SET stock_disponible = stock_disponible - ?, " +
+            "disponibilite = (stock_disponible - ?) > 0 " +
+            "WHERE id_produit = ? AND stock_disponible >= ? AND disponibilite = true";
+
+    private static final String SQL_LIBERER =
+            "UPDATE produits SET stock_disponible = stock_disponible + ?, " +
+            "disponibilite = (stock_disponible + ?) > 0 " +
+            "WHERE id_produit = ?";
+
+    private static final String SQL_RELIRE =
+            "SELECT id_produit, stock_disponible, disponibilite FROM produits WHERE id_produit IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Décrémente le stock de chaque produit (idProduit -> quantité).
+     * Si une seule ligne ne peut pas être servie, une exception est levée et la transaction
+     * annule toutes les décrémentations déjà faites.
+     */
+    @Transactional
+    public void reserver(Map<Long, Integer> quantites) {
+        SortedMap<Long, Integer> lignes = trier(quantites);
+        if (lignes.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> parametres = new ArrayList<>(lignes.size());
+        lignes.forEach((id, quantite) -> parametres.add(new Object[]{quantite, quantite, id, quantite}));
+
+        int[] resultats = jdbcTemplate.batchUpdate(SQL_RESERVER, parametres);
+
+        List<Long> ids = new ArrayList<>(lignes.keySet());
+        for (int i = 0; i < resultats.length; i++) {
+            if (resultats[i] == 0) {
+                throw new RuntimeException("Stock insuffisant pour le produit ID : " + ids.get(i));
+            }
+        }
+
+        log.info("📦 Stock réservé pour {} produit(s)", lignes.size());
+        publierStocks(ids);
+    }
+
+    /**
+     * Remet en stock les quantités (idProduit -> quantité), par exemple à l'annulation d'une commande.
+     */
+    @Transactional
+    public void liberer(Map<Long, Integer> quantites) {
+        SortedMap<Long, Integer> lignes = trier(quantites);
+        if (lignes.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> parametres = new ArrayList<>(lignes.size());
+        lignes.forEach((id, quantite) -> parametres.add(new Object[]{quantite, quantite, id}));
+        jdbcTemplate.batchUpdate(SQL_LIBERER, parametres);
+
+        log.info("🔄 Stock libéré pour {} produit(s)", lignes.size());
+        publierStocks(new ArrayList<>(lignes.keySet()));
+    }
+
+    private static SortedMap<Long, Integer> trier(Map<Long, Integer> quantites) {
+        SortedMap<Long, Integer> lignes = new TreeMap<>();
+        quantites.forEach((id, quantite) -> {
+            if (quantite == null || quantite <= 0) {
+                throw new RuntimeException("Quantité invalide pour le produit ID : " + id);
+            }
+            lignes.merge(id, quantite, Integer::sum);
+        });
+        return lignes;
+    }
+
+    // Les index en mémoire et le cache se mettent à jour après le commit à partir des valeurs relues
+    private void publierStocks(List<Long> ids) {
+        namedParameterJdbcTemplate.query(SQL_RELIRE, new MapSqlParameterSource("ids", ids), rs -> {
+            eventPublisher.publishEvent(new StockModifieEvent(
+                    rs.getLong("id_produit"),
+                    rs.getInt("stock_disponible"),
+                    rs.getBoolean("disponibilite")));
+        });
+    }
+}
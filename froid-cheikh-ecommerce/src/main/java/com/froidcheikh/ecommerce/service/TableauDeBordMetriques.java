@@ -0,0 +1,200 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.event.*;
+import com.froidcheikh.ecommerce.repository.ClientRepository;
+import com.froidcheikh.ecommerce.repository.CommandeRepository;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compteurs du tableau de bord admin tenus à jour par les événements métier (après commit),
+ * pour que getStatistiquesGenerales ne lance plus aucune requête.
+ * Une réconciliation périodique avec la base corrige les écarts éventuels
+ * (écritures hors services, événements perdus pendant une réconciliation...).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TableauDeBordMetriques {
+
+    public static final int SEUIL_STOCK_FAIBLE = 5;
+
+    private static final Commande.StatutCommande[] STATUTS = Commande.StatutCommande.values();
+
+    private final CommandeRepository commandeRepository;
+    private final ClientRepository clientRepository;
+    private final ProduitRepository produitRepository;
+
+    private final AtomicLong totalCommandes = new AtomicLong();
+    private final AtomicLong totalClients = new AtomicLong();
+    private final AtomicLongArray commandesParStatut = new AtomicLongArray(STATUTS.length);
+
+    // Compteurs remis à zéro implicitement au changement de jour / de mois
+    private final AtomicReference<CompteurPeriode> commandesDuJour = new AtomicReference<>(new CompteurPeriode(LocalDate.MIN, 0));
+    private final AtomicReference<CompteurPeriode> commandesDuMois = new AtomicReference<>(new CompteurPeriode(LocalDate.MIN, 0));
+
+    private final Set<Long> produits = ConcurrentHashMap.newKeySet();
+    private final Set<Long> produitsStockFaible = ConcurrentHashMap.newKeySet();
+
+    private record CompteurPeriode(LocalDate periode, long valeur) {
+
+        long valeurPour(LocalDate periodeCourante) {
+            return periode.equals(periodeCourante) ? valeur : 0;
+        }
+    }
+
+    public Map<String, Object> getStatistiquesGenerales() {
+        LocalDate aujourdHui = LocalDate.now();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalCommandes", totalCommandes.get());
+        stats.put("commandesDuJour", commandesDuJour.get().valeurPour(aujourdHui));
+        stats.put("commandesDuMois", commandesDuMois.get().valeurPour(aujourdHui.withDayOfMonth(1)));
+        stats.put("totalClients", totalClients.get());
+        stats.put("totalProduits", (long) produits.size());
+        stats.put("produitsStockFaible", produitsStockFaible.size());
+
+        Map<Commande.StatutCommande, Long> parStatut = new EnumMap<>(Commande.StatutCommande.class);
+        for (Commande.StatutCommande statut : STATUTS) {
+            parStatut.put(statut, commandesParStatut.get(statut.ordinal()));
+        }
+        stats.put("commandesParStatut", parStatut);
+        return stats;
+    }
+
+    // ==================== ÉVÉNEMENTS ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeCreee(CommandeCreeeEvent event) {
+        totalCommandes.incrementAndGet();
+        commandesParStatut.incrementAndGet(event.statut().ordinal());
+        ajusterPeriodes(event.dateCommande(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeStatutModifie(CommandeStatutModifieEvent event) {
+        if (event.ancienStatut() != null) {
+            commandesParStatut.decrementAndGet(event.ancienStatut().ordinal());
+        }
+        if (event.isSuppression()) {
+            totalCommandes.decrementAndGet();
+            ajusterPeriodes(event.dateCommande(), -1);
+        } else {
+            commandesParStatut.incrementAndGet(event.nouveauStatut().ordinal());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientInscrit(ClientInscritEvent event) {
+        totalClients.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientSupprime(ClientSupprimeEvent event) {
+        totalClients.decrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        if (event.isSuppression()) {
+            produits.remove(event.idProduit());
+            produitsStockFaible.remove(event.idProduit());
+            return;
+        }
+        produits.add(event.idProduit());
+        majStockFaible(event.idProduit(), event.produit().stockDisponible());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockModifie(StockModifieEvent event) {
+        majStockFaible(event.idProduit(), event.stockDisponible());
+    }
+
+    // ==================== RÉCONCILIATION ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialiser() {
+        reconcilier();
+    }
+
+    @Scheduled(initialDelayString = "${app.tableau-de-bord.reconciliation-ms:300000}",
+            fixedDelayString = "${app.tableau-de-bord.reconciliation-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconcilier() {
+        long debut = System.currentTimeMillis();
+        LocalDate aujourdHui = LocalDate.now();
+        LocalDate debutMois = aujourdHui.withDayOfMonth(1);
+
+        totalCommandes.set(commandeRepository.count());
+        commandesDuJour.set(new CompteurPeriode(aujourdHui,
+                commandeRepository.countCommandesSince(aujourdHui.atStartOfDay())));
+        commandesDuMois.set(new CompteurPeriode(debutMois,
+                commandeRepository.countCommandesSince(debutMois.atStartOfDay())));
+
+        long[] parStatut = new long[STATUTS.length];
+        for (Object[] ligne : commandeRepository.countByStatut()) {
+            parStatut[((Commande.StatutCommande) ligne[0]).ordinal()] = ((Number) ligne[1]).longValue();
+        }
+        for (int i = 0; i < parStatut.length; i++) {
+            commandesParStatut.set(i, parStatut[i]);
+        }
+
+        totalClients.set(clientRepository.count());
+
+        Set<Long> ids = Set.copyOf(produitRepository.findAllIds());
+        produits.retainAll(ids);
+        produits.addAll(ids);
+        Set<Long> stockFaible = Set.copyOf(produitRepository.findIdsByStockDisponibleLessThan(SEUIL_STOCK_FAIBLE));
+        produitsStockFaible.retainAll(stockFaible);
+        produitsStockFaible.addAll(stockFaible);
+
+        log.info("📊 Compteurs du tableau de bord réconciliés en {} ms", System.currentTimeMillis() - debut);
+    }
+
+    private void majStockFaible(Long idProduit, Integer stock) {
+        if (stock != null && stock < SEUIL_STOCK_FAIBLE) {
+            produitsStockFaible.add(idProduit);
+        } else {
+            produitsStockFaible.remove(idProduit);
+        }
+    }
+
+    private void ajusterPeriodes(LocalDateTime dateCommande, long delta) {
+        LocalDate jour = dateCommande != null ? dateCommande.toLocalDate() : LocalDate.now();
+        ajuster(commandesDuJour, jour, delta);
+        ajuster(commandesDuMois, jour.withDayOfMonth(1), delta);
+    }
+
+    // Un compteur d'une période révolue est remplacé ; une commande d'une période passée ne le touche pas
+    private static void ajuster(AtomicReference<CompteurPeriode> compteur, LocalDate periode, long delta) {
+        compteur.updateAndGet(courant -> {
+            if (courant.periode().equals(periode)) {
+                return new CompteurPeriode(periode, courant.valeur() + delta);
+            }
+            if (courant.periode().isBefore(periode) && delta > 0) {
+                return new CompteurPeriode(periode, delta);
+            }
+            return courant;
+        });
+    }
+}
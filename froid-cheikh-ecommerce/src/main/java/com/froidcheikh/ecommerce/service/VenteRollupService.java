@@ -0,0 +1,192 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.event.CommandeCreeeEvent;
+import com.froidcheikh.ecommerce.event.CommandeStatutModifieEvent;
+import com.froidcheikh.ecommerce.repository.VenteJournaliereRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintient les agrégats de ventes journaliers (ventes_journalieres, ventes_produits_journalieres).
+ * Chaque commande créée, annulée ou réactivée est appliquée par un upsert PostgreSQL (INSERT ... ON CONFLICT)
+ * dans une transaction REQUIRES_NEW après le commit de la commande ; l'historique est recalculé au démarrage
+ * si les tables d'agrégats sont vides. Un jour dont la mise à jour a échoué est recalculé entièrement depuis
+ * les commandes par la passe planifiée suivante. Les suppressions de commandes (déjà annulées) ne modifient pas l'historique.
+ */
+@Service
+@Slf4j
+public class VenteRollupService {
+
+    static final Set<Commande.StatutCommande> STATUTS_ANNULES =
+            EnumSet.of(Commande.StatutCommande.ANNULEE, Commande.StatutCommande.REMBOURSEE);
+
+    private static final String SQL_ANNULEE = "c.statut_commande IN ('ANNULEE', 'REMBOURSEE')";
+
+    // Paramètres : delta commandes, signe ventes, signe ventes, delta annulations, id commande
+    private static final String SQL_JOUR = """
+            INSERT INTO ventes_journalieres (jour, nombre_commandes, chiffre_affaires, unites_vendues, nombre_annulations)
+            SELECT CAST(c.date_commande AS DATE), ?, ? * c.montant_total,
+                   ? * COALESCE((SELECT SUM(l.quantite) FROM lignes_commande l WHERE l.commande_id = c.id_commande), 0), ?
+            FROM commandes c
+            WHERE c.id_commande = ?
+            ON CONFLICT (jour) DO UPDATE SET
+                nombre_commandes = ventes_journalieres.nombre_commandes + EXCLUDED.nombre_commandes,
+                chiffre_affaires = ventes_journalieres.chiffre_affaires + EXCLUDED.chiffre_affaires,
+                unites_vendues = ventes_journalieres.unites_vendues + EXCLUDED.unites_vendues,
+                nombre_annulations = ventes_journalieres.nombre_annulations + EXCLUDED.nombre_annulations
+            """;
+
+    // Paramètres : delta commandes, signe ventes, signe ventes, signe annulations, id commande
+    private static final String SQL_PRODUITS = """
+            INSERT INTO ventes_produits_journalieres (jour, produit_id, nombre_commandes, unites_vendues, chiffre_affaires, unites_annulees)
+            SELECT CAST(c.date_commande AS DATE), l.produit_id, ?, ? * SUM(l.quantite), ? * SUM(l.sous_total), ? * SUM(l.quantite)
+            FROM lignes_commande l
+            JOIN commandes c ON c.id_commande = l.commande_id
+            WHERE l.commande_id = ? AND l.produit_id IS NOT NULL
+            GROUP BY CAST(c.date_commande AS DATE), l.produit_id
+            ON CONFLICT (jour, produit_id) DO UPDATE SET
+                nombre_commandes = ventes_produits_journalieres.nombre_commandes + EXCLUDED.nombre_commandes,
+                unites_vendues = ventes_produits_journalieres.unites_vendues + EXCLUDED.unites_vendues,
+                chiffre_affaires = ventes_produits_journalieres.chiffre_affaires + EXCLUDED.chiffre_affaires,
+                unites_annulees = ventes_produits_journalieres.unites_annulees + EXCLUDED.unites_annulees
+            """;
+
+    // %2$s : filtre supplémentaire sur la date de commande (vide pour tout l'historique)
+    private static final String SQL_RATTRAPAGE_JOURS = """
+            INSERT INTO ventes_journalieres (jour, nombre_commandes, chiffre_affaires, unites_vendues, nombre_annulations)
+            SELECT CAST(c.date_commande AS DATE), COUNT(*),
+                   SUM(CASE WHEN %1$s THEN 0 ELSE c.montant_total END),
+                   SUM(CASE WHEN %1$s THEN 0 ELSE COALESCE(u.unites, 0) END),
+                   SUM(CASE WHEN %1$s THEN 1 ELSE 0 END)
+            FROM commandes c
+            LEFT JOIN (SELECT commande_id, SUM(quantite) AS unites FROM lignes_commande GROUP BY commande_id) u
+                   ON u.commande_id = c.id_commande
+            WHERE c.date_commande IS NOT NULL%2$s
+            GROUP BY CAST(c.date_commande AS DATE)
+            """;
+
+    private static final String SQL_RATTRAPAGE_PRODUITS = """
+            INSERT INTO ventes_produits_journalieres (jour, produit_id, nombre_commandes, unites_vendues, chiffre_affaires, unites_annulees)
+            SELECT CAST(c.date_commande AS DATE), l.produit_id, COUNT(DISTINCT c.id_commande),
+                   SUM(CASE WHEN %1$s THEN 0 ELSE l.quantite END),
+                   SUM(CASE WHEN %1$s THEN 0 ELSE l.sous_total END),
+                   SUM(CASE WHEN %1$s THEN l.quantite ELSE 0 END)
+            FROM lignes_commande l
+            JOIN commandes c ON c.id_commande = l.commande_id
+            WHERE l.produit_id IS NOT NULL AND c.date_commande IS NOT NULL%2$s
+            GROUP BY CAST(c.date_commande AS DATE), l.produit_id
+            """;
+
+    private static final String FILTRE_JOUR = " AND c.date_commande >= ? AND c.date_commande < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final TransactionTemplate nouvelleTransaction;
+
+    // Jours dont un upsert a échoué : leurs agrégats ne sont plus fiables jusqu'au prochain recalcul
+    private final Set<LocalDate> joursAReconstruire = ConcurrentHashMap.newKeySet();
+
+    public VenteRollupService(JdbcTemplate jdbcTemplate,
+                              VenteJournaliereRepository venteJournaliereRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.venteJournaliereRepository = venteJournaliereRepository;
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeCreee(CommandeCreeeEvent event) {
+        boolean annulee = STATUTS_ANNULES.contains(event.statut());
+        appliquer(event.idCommande(), event.dateCommande(), 1, annulee ? 0 : 1, annulee ? 1 : 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandeStatutModifie(CommandeStatutModifieEvent event) {
+        if (event.isSuppression()) {
+            return;
+        }
+        boolean avant = STATUTS_ANNULES.contains(event.ancienStatut());
+        boolean apres = STATUTS_ANNULES.contains(event.nouveauStatut());
+        if (avant == apres) {
+            return;
+        }
+        // Annulation : on retire les ventes et on compte l'annulation ; l'inverse pour une réactivation
+        appliquer(event.idCommande(), event.dateCommande(), 0, apres ? -1 : 1, apres ? 1 : -1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rattraperHistorique() {
+        if (venteJournaliereRepository.count() > 0) {
+            return;
+        }
+        long debut = System.currentTimeMillis();
+        int jours = jdbcTemplate.update(SQL_RATTRAPAGE_JOURS.formatted(SQL_ANNULEE, ""));
+        int lignesProduits = jdbcTemplate.update(SQL_RATTRAPAGE_PRODUITS.formatted(SQL_ANNULEE, ""));
+        log.info("📈 Agrégats de ventes reconstruits : {} jour(s), {} ligne(s) produit en {} ms",
+                jours, lignesProduits, System.currentTimeMillis() - debut);
+    }
+
+    @Scheduled(initialDelayString = "${app.ventes.reconstruction-ms:60000}",
+            fixedDelayString = "${app.ventes.reconstruction-ms:60000}")
+    public void reconstruireJoursEnEchec() {
+        for (LocalDate jour : List.copyOf(joursAReconstruire)) {
+            joursAReconstruire.remove(jour);
+            try {
+                reconstruireJour(jour);
+            } catch (RuntimeException e) {
+                joursAReconstruire.add(jour);
+                log.error("❌ Recalcul des agrégats de ventes du {} impossible: {}", jour, e.getMessage());
+            }
+        }
+    }
+
+    // Remplace les agrégats du jour par un recalcul complet depuis les commandes
+    void reconstruireJour(LocalDate jour) {
+        Timestamp debut = Timestamp.valueOf(jour.atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(jour.plusDays(1).atStartOfDay());
+        nouvelleTransaction.executeWithoutResult(statut -> {
+            jdbcTemplate.update("DELETE FROM ventes_produits_journalieres WHERE jour = ?", jour);
+            jdbcTemplate.update("DELETE FROM ventes_journalieres WHERE jour = ?", jour);
+            jdbcTemplate.update(SQL_RATTRAPAGE_JOURS.formatted(SQL_ANNULEE, FILTRE_JOUR), debut, fin);
+            jdbcTemplate.update(SQL_RATTRAPAGE_PRODUITS.formatted(SQL_ANNULEE, FILTRE_JOUR), debut, fin);
+        });
+        log.info("📈 Agrégats de ventes du {} recalculés", jour);
+    }
+
+    private void appliquer(Long idCommande, LocalDateTime dateCommande,
+                           int deltaCommandes, int signeVentes, int signeAnnulations) {
+        try {
+            // Nouvelle transaction : celle de la commande est déjà validée quand l'écouteur s'exécute
+            nouvelleTransaction.executeWithoutResult(statut -> {
+                jdbcTemplate.update(SQL_JOUR, deltaCommandes, signeVentes, signeVentes, signeAnnulations, idCommande);
+                jdbcTemplate.update(SQL_PRODUITS, deltaCommandes, signeVentes, signeVentes, signeAnnulations, idCommande);
+            });
+        } catch (RuntimeException e) {
+            // La commande est déjà validée : on ne la fait pas échouer, son jour sera recalculé par la passe planifiée
+            LocalDate jour = dateCommande != null ? dateCommande.toLocalDate() : LocalDate.now();
+            joursAReconstruire.add(jour);
+            log.error("❌ Mise à jour des agrégats de ventes impossible pour la commande {} (jour {} à recalculer): {}",
+                    idCommande, jour, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.froidcheikh.ecommerce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position dans une liste triée par (date DESC, id DESC), utilisée pour la pagination par curseur.
+ * Le client reçoit une chaîne opaque en base64url qu'il renvoie telle quelle pour la page suivante.
+ */
+public record Curseur(LocalDateTime date, Long id) {
+
+    private static final String SEPARATEUR = "|";
+
+    public String encoder() {
+        String valeur = date + SEPARATEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valeur.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retourne null pour la première page (curseur absent).
+     */
+    public static Curseur decoder(String curseur) {
+        if (curseur == null || curseur.isBlank()) {
+            return null;
+        }
+        try {
+            String valeur = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            int separateur = valeur.lastIndexOf(SEPARATEUR);
+            return new Curseur(
+                    LocalDateTime.parse(valeur.substring(0, separateur)),
+                    Long.parseLong(valeur.substring(separateur + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.froidcheikh.ecommerce.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+public final class TexteUtils {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern ESPACES = Pattern.compile("\\s+");
+
+    private TexteUtils() { /* classe utilitaire - empêcher l'instanciation */ }
+
+    /**
+     * Met en minuscules et retire les accents : "Réfrigérateur" -> "refrigerateur"
+     */
+    public static String normaliser(String texte) {
+        if (texte == null || texte.isEmpty()) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        return DIACRITIQUES.matcher(decompose).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Découpe un texte normalisé en mots (lettres et chiffres uniquement)
+     */
+    public static List<String> tokeniser(String texte) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATEURS.split(normaliser(texte))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Concatène des champs normalisés séparés par une espace : ("Awa", "Diop") -> "awa diop"
+     */
+    public static String cleRecherche(String... champs) {
+        StringJoiner cle = new StringJoiner(" ");
+        for (String champ : champs) {
+            String normalise = ESPACES.matcher(normaliser(champ)).replaceAll(" ").trim();
+            if (!normalise.isEmpty()) {
+                cle.add(normalise);
+            }
+        }
+        return cle.toString();
+    }
+
+    /**
+     * Motif LIKE (échappement '\') cherchant les mots saisis dans cet ordre : "Awa  Diop" -> "%awa%diop%".
+     * Retourne null si la saisie ne contient aucun mot.
+     */
+    public static String motifContient(String saisie) {
+        StringBuilder motif = new StringBuilder("%");
+        for (String mot : ESPACES.split(normaliser(saisie))) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            for (char c : mot.toCharArray()) {
+                if (c == '%' || c == '_' || c == '\\') {
+                    motif.append('\\');
+                }
+                motif.append(c);
+            }
+            motif.append('%');
+        }
+        return motif.length() > 1 ? motif.toString() : null;
+    }
+}
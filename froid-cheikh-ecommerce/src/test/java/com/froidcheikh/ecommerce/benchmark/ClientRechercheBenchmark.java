@@ -0,0 +1,129 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.entity.Client;
+import com.froidcheikh.ecommerce.util.TexteUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de clients sur une table synthétique (clients_benchmark).
+ * avant : chargement de toute la table puis filtre en Java (ancien searchClients(String)) ;
+ * apres : LIKE sur la colonne normalisée, première page de 20 et comptage, comme ClientRepository.searchClients.
+ * H2 en mémoire par défaut (la colonne est balayée) ; pour mesurer l'index trigramme, pointer une base PostgreSQL
+ * de test avec BENCHMARK_JDBC_URL, BENCHMARK_JDBC_UTILISATEUR et BENCHMARK_JDBC_MOT_DE_PASSE (variables
+ * d'environnement, transmises au fork JMH) et lancer JMH avec -p nombreClients=1000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientRechercheBenchmark {
+
+    private static final String[] PRENOMS = {"Awa", "Moussa", "Ndèye", "Aïssatou", "Cheikh", "Fatou", "Mamadou", "Khady", "Ousmane", "Marième"};
+    private static final String[] NOMS = {"Diop", "Ndiaye", "Fall", "Seck", "Sène", "Guèye", "Ba", "Sow", "Faye", "Mbaye", "Cissé", "Thiam"};
+
+    private static final String COLONNES = "id_client, nom, prenom, email, telephone, date_creation";
+    private static final int TAILLE_PAGE = 20;
+
+    @Param({"100000"})
+    private int nombreClients;
+
+    @Param({"sene", "ndeye seck", "771000042"})
+    private String terme;
+
+    private JdbcTemplate jdbcTemplate;
+    private String motif;
+
+    private final RowMapper<Client> clientMapper = (rs, i) -> {
+        Client client = new Client();
+        client.setIdClient(rs.getLong("id_client"));
+        client.setNom(rs.getString("nom"));
+        client.setPrenom(rs.getString("prenom"));
+        client.setEmail(rs.getString("email"));
+        client.setTelephone(rs.getString("telephone"));
+        client.setDateCreation(rs.getTimestamp("date_creation").toLocalDateTime());
+        return client;
+    };
+
+    @Setup
+    public void setUp() {
+        DonneesBenchmark.reduireLogs();
+
+        String url = variable("BENCHMARK_JDBC_URL", "jdbc:h2:mem:clients;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url,
+                variable("BENCHMARK_JDBC_UTILISATEUR", "sa"), variable("BENCHMARK_JDBC_MOT_DE_PASSE", "")));
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS clients_benchmark");
+        jdbcTemplate.execute("CREATE TABLE clients_benchmark (id_client BIGINT PRIMARY KEY, nom VARCHAR(50), prenom VARCHAR(50), "
+                + "email VARCHAR(255), telephone VARCHAR(20), date_creation TIMESTAMP, recherche VARCHAR(512))");
+
+        LocalDateTime origine = LocalDateTime.now();
+        List<Object[]> lot = new ArrayList<>();
+        for (long id = 1; id <= nombreClients; id++) {
+            String prenom = PRENOMS[(int) (id % PRENOMS.length)];
+            String nom = NOMS[(int) ((id / PRENOMS.length) % NOMS.length)];
+            String email = TexteUtils.normaliser(prenom + "." + nom) + id + "@example.sn";
+            String telephone = String.valueOf(770_000_000L + id);
+            lot.add(new Object[]{id, nom, prenom, email, telephone, Timestamp.valueOf(origine.minusMinutes(id)),
+                    Client.cleRecherche(nom, prenom, email, telephone)});
+            if (lot.size() == 5_000 || id == nombreClients) {
+                jdbcTemplate.batchUpdate("INSERT INTO clients_benchmark VALUES (?, ?, ?, ?, ?, ?, ?)", lot);
+                lot.clear();
+            }
+        }
+
+        if (url.startsWith("jdbc:postgresql")) {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX ON clients_benchmark USING gin (recherche gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX ON clients_benchmark (date_creation)");
+            jdbcTemplate.execute("ANALYZE clients_benchmark");
+        }
+
+        motif = TexteUtils.motifContient(terme);
+    }
+
+    private static String variable(String nom, String defaut) {
+        String valeur = System.getenv(nom);
+        return valeur != null ? valeur : defaut;
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS clients_benchmark");
+    }
+
+    @Benchmark
+    public List<Client> avant() {
+        String recherche = terme.toLowerCase();
+        return jdbcTemplate.query("SELECT " + COLONNES + " FROM clients_benchmark", clientMapper)
+                .stream()
+                .filter(client ->
+                        client.getNom().toLowerCase().contains(recherche) ||
+                                client.getPrenom().toLowerCase().contains(recherche) ||
+                                client.getEmail().toLowerCase().contains(recherche))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Client> apres() {
+        List<Client> page = jdbcTemplate.query("SELECT " + COLONNES + " FROM clients_benchmark "
+                        + "WHERE recherche LIKE ? ESCAPE '\\' ORDER BY date_creation DESC LIMIT " + TAILLE_PAGE,
+                clientMapper, motif);
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM clients_benchmark WHERE recherche LIKE ? ESCAPE '\\'", Long.class, motif);
+        if (total == null || total < page.size()) {
+            throw new IllegalStateException("Comptage incohérent");
+        }
+        return page;
+    }
+}
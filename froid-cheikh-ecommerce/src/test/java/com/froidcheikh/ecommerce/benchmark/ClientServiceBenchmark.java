@@ -0,0 +1,68 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.mapper.ClientMapper;
+import com.froidcheikh.ecommerce.repository.ClientRepository;
+import com.froidcheikh.ecommerce.service.ClientService;
+import com.froidcheikh.ecommerce.service.ClientStatistiquesCache;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Statistiques d'un client : construction à partir de la projection agrégée (repository simulé)
+ * et lecture depuis le cache par client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+    private ClientService clientService;
+    private ClientStatistiquesCache statistiquesCache;
+
+    @Setup
+    public void setUp() {
+        DonneesBenchmark.reduireLogs();
+
+        ClientRepository.StatistiquesClient statistiques = new ClientRepository.StatistiquesClient() {
+            public Long getTotalCommandes() { return 200L; }
+            public Long getCommandesLivrees() { return 150L; }
+            public Long getCommandesEnCours() { return 20L; }
+            public BigDecimal getMontantTotalAchats() { return new BigDecimal("48750000.00"); }
+            public LocalDateTime getDerniereCommande() { return LocalDateTime.now(); }
+            public Integer getProduitsWishlist() { return 3; }
+            public Integer getNombreAdresses() { return 2; }
+        };
+
+        ClientRepository clientRepository = mock(ClientRepository.class, withSettings().stubOnly());
+        when(clientRepository.findStatistiques(anyLong())).thenReturn(Optional.of(statistiques));
+
+        statistiquesCache = new ClientStatistiquesCache(10_000, 10);
+        clientService = new ClientService(clientRepository, null, null, Mappers.getMapper(ClientMapper.class), null,
+                statistiquesCache, event -> { });
+    }
+
+    @Benchmark
+    public Map<String, Object> getClientStatistics() {
+        return clientService.getClientStatistics(1L);
+    }
+
+    @Benchmark
+    public Map<String, Object> getClientStatistics_apresInvalidation() {
+        statistiquesCache.invalider(1L);
+        return clientService.getClientStatistics(1L);
+    }
+}
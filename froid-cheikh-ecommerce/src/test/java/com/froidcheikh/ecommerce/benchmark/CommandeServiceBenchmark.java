@@ -0,0 +1,120 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.dto.CommandeDTO;
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.mapper.CommandeMapper;
+import com.froidcheikh.ecommerce.repository.CommandeRepository;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import com.froidcheikh.ecommerce.service.CommandeService;
+import com.froidcheikh.ecommerce.service.IdentifiantService;
+import com.froidcheikh.ecommerce.service.StockReservationService;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Création d'une commande invité de 5 lignes : réservation du stock, calcul des montants
+ * et construction des lignes. Les repositories et la réservation sont simulés.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandeServiceBenchmark {
+
+    private static final int STOCK_INITIAL = 1_000_000_000;
+
+    private CommandeService commandeService;
+    private List<Produit> produits;
+    private CommandeDTO commandeDTO;
+
+    @Setup
+    public void setUp() {
+        DonneesBenchmark.reduireLogs();
+
+        produits = DonneesBenchmark.produits(DonneesBenchmark.tailleCatalogue());
+        Map<Long, Produit> parId = produits.stream()
+                .collect(Collectors.toMap(Produit::getIdProduit, Function.identity()));
+
+        ProduitRepository produitRepository = mock(ProduitRepository.class, withSettings().stubOnly());
+        when(produitRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Produit> trouves = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> trouves.add(parId.get(id)));
+            return trouves;
+        });
+
+        AtomicLong sequence = new AtomicLong();
+        CommandeRepository commandeRepository = mock(CommandeRepository.class, withSettings().stubOnly());
+        when(commandeRepository.save(any(Commande.class))).thenAnswer(invocation -> {
+            Commande commande = invocation.getArgument(0);
+            if (commande.getIdCommande() == null) {
+                commande.setIdCommande(sequence.incrementAndGet());
+            }
+            return commande;
+        });
+
+        // Réservation atomique simulée : décrément direct du stock en mémoire
+        StockReservationService stockReservationService = mock(StockReservationService.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            Map<Long, Integer> quantites = invocation.getArgument(0);
+            quantites.forEach((id, quantite) -> {
+                Produit produit = parId.get(id);
+                produit.setStockDisponible(produit.getStockDisponible() - quantite);
+            });
+            return null;
+        }).when(stockReservationService).reserver(anyMap());
+
+        commandeService = new CommandeService(commandeRepository, null, produitRepository, null,
+                stockReservationService, new IdentifiantService(0), Mappers.getMapper(CommandeMapper.class), event -> { });
+
+        commandeDTO = new CommandeDTO();
+        commandeDTO.setModeLivraison(Commande.ModeLivraison.LIVRAISON_DOMICILE);
+        commandeDTO.setEmailInvite("invite@example.sn");
+        commandeDTO.setNomInvite("Ndiaye");
+        commandeDTO.setPrenomInvite("Moussa");
+        commandeDTO.setTelephoneInvite("771234567");
+        commandeDTO.setAdresseLivraison(new CommandeDTO.AdresseLivraisonDTO(
+                "Ndiaye", "Moussa", "Rue 10, Médina", null, "Dakar", null, "771234567"));
+
+        List<CommandeDTO.LigneCommandeDTO> lignes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CommandeDTO.LigneCommandeDTO ligne = new CommandeDTO.LigneCommandeDTO();
+            ligne.setProduitId(produits.get(i).getIdProduit());
+            ligne.setQuantite(1 + i % 3);
+            lignes.add(ligne);
+        }
+        commandeDTO.setLignesCommande(lignes);
+    }
+
+    // Chaque commande décrémente le stock des produits simulés
+    @Setup(Level.Iteration)
+    public void reinitialiserStock() {
+        produits.forEach(produit -> {
+            produit.setStockDisponible(STOCK_INITIAL);
+            produit.setDisponibilite(true);
+        });
+    }
+
+    @Benchmark
+    public CommandeDTO creerCommandeInvite() {
+        return commandeService.creerCommandeInvite(commandeDTO);
+    }
+}
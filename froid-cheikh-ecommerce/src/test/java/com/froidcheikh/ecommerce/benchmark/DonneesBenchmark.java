@@ -0,0 +1,172 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.entity.*;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jeux de données en mémoire pour les benchmarks, calqués sur ceux créés par DataSeeder.
+ */
+final class DonneesBenchmark {
+
+    private DonneesBenchmark() { /* classe utilitaire - empêcher l'instanciation */ }
+
+    // Extrait du catalogue créé par DataSeeder : nom, description, prix, stock, ref, marque, catégorie, BTU, watts, label
+    private static final Object[][] CATALOGUE = {
+            {"Samsung AR12", "Climatiseur split Samsung 12000 BTU avec technologie Digital Inverter", "320000", 15, "SAM-AR12-001", "Samsung", "Climatiseurs Split", 12000, 1050, Produit.LabelEnergie.A_PLUS},
+            {"Samsung AR18", "Climatiseur split Samsung 18000 BTU inverter", "450000", 12, "SAM-AR18-001", "Samsung", "Climatiseurs Split", 18000, 1400, Produit.LabelEnergie.A_PLUS},
+            {"Samsung AR24", "Climatiseur split Samsung 24000 BTU avec WiFi", "580000", 8, "SAM-AR24-001", "Samsung", "Climatiseurs Split", 24000, 1850, Produit.LabelEnergie.A_PLUS},
+            {"LG Dual Cool", "Climatiseur LG 12000 BTU Dual Inverter", "340000", 10, "LG-DC12-001", "LG", "Climatiseurs Split", 12000, 980, Produit.LabelEnergie.A_PLUS_PLUS},
+            {"LG Art Cool", "Climatiseur LG 18000 BTU design premium", "520000", 6, "LG-AC18-001", "LG", "Climatiseurs Split", 18000, 1300, Produit.LabelEnergie.A_PLUS_PLUS},
+            {"Daikin FTXS25K", "Climatiseur Daikin 9000 BTU silencieux", "280000", 20, "DAI-FTXS25-001", "Daikin", "Climatiseurs Split", 9000, 750, Produit.LabelEnergie.A_PLUS_PLUS_PLUS},
+            {"Daikin FTXS35K", "Climatiseur Daikin 12000 BTU eco-friendly", "380000", 15, "DAI-FTXS35-001", "Daikin", "Climatiseurs Split", 12000, 950, Produit.LabelEnergie.A_PLUS_PLUS_PLUS},
+            {"Samsung RB34", "Réfrigérateur Samsung 2 portes 340L No Frost", "280000", 12, "SAM-RB34-001", "Samsung", "Réfrigérateurs 2 Portes", null, 150, Produit.LabelEnergie.A_PLUS},
+            {"Sharp SJ-K155", "Mini réfrigérateur Sharp 150L", "120000", 25, "SHA-SJK155-001", "Sharp", "Mini Réfrigérateurs", null, 85, Produit.LabelEnergie.A},
+            {"Samsung CF-1200", "Ventilateur de plafond Samsung 48\" avec éclairage LED", "45000", 40, "SAM-CF1200-001", "Samsung", "Ventilateurs de Plafond", null, 75, Produit.LabelEnergie.A},
+    };
+
+    static int tailleCatalogue() {
+        return CATALOGUE.length;
+    }
+
+    static Produit produit(long id) {
+        Object[] ligne = CATALOGUE[(int) ((id - 1) % CATALOGUE.length)];
+
+        Categorie categorie = new Categorie();
+        categorie.setIdCategorie((long) ((String) ligne[6]).hashCode());
+        categorie.setNomCategorie((String) ligne[6]);
+
+        Marque marque = new Marque();
+        marque.setIdMarque((long) ((String) ligne[5]).hashCode());
+        marque.setNomMarque((String) ligne[5]);
+
+        Produit produit = new Produit();
+        produit.setIdProduit(id);
+        produit.setNomProduit((String) ligne[0]);
+        produit.setDescriptionProduit((String) ligne[1]);
+        produit.setPrix(new BigDecimal((String) ligne[2]));
+        produit.setStockDisponible((Integer) ligne[3]);
+        produit.setRefProduit(ligne[4] + "-" + id);
+        produit.setCodeProduit("CODE-" + id);
+        produit.setGarantie("2 ans");
+        produit.setLabelEnergie((Produit.LabelEnergie) ligne[9]);
+        produit.setPuissanceBTU((Integer) ligne[7]);
+        produit.setConsommationWatt((Integer) ligne[8]);
+        produit.setListeImages(new ArrayList<>(List.of(
+                "uploads/produits/images/" + id + "-1.jpg",
+                "uploads/produits/images/" + id + "-2.jpg")));
+        produit.setVideosOptionnelles(new ArrayList<>());
+        produit.setDisponibilite(true);
+        produit.setDateAjout(LocalDateTime.now().minusDays(id));
+        produit.setCategorie(categorie);
+        produit.setMarque(marque);
+
+        List<AttributProduit> attributs = new ArrayList<>();
+        for (String[] a : new String[][]{{"Couleur", "Blanc"}, {"Type", "Split mural"}, {"Fluide frigorigène", "R32"}}) {
+            AttributProduit attribut = new AttributProduit();
+            attribut.setNomAttribut(a[0]);
+            attribut.setValeurAttribut(a[1]);
+            attribut.setProduit(produit);
+            attributs.add(attribut);
+        }
+        produit.setAttributs(attributs);
+        return produit;
+    }
+
+    static List<Produit> produits(int nombre) {
+        List<Produit> produits = new ArrayList<>(nombre);
+        for (long id = 1; id <= nombre; id++) {
+            produits.add(produit(id));
+        }
+        return produits;
+    }
+
+    // Les services loguent en INFO sur chaque appel : on ne garde que les avertissements pendant les mesures
+    static void reduireLogs() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.WARN);
+    }
+
+    static Client client(long id) {
+        Client client = new Client();
+        client.setIdClient(id);
+        client.setNom("Diop");
+        client.setPrenom("Awa");
+        client.setEmail("client" + id + "@example.sn");
+        client.setMotDePasse("$2a$10$N.zmdr9k7uH7NOARlXihU.4Y8Snt6Z9Q8UQ6C2LK6Vt2Ux8GU.KeS");
+        client.setTelephone("771234567");
+        client.setGenre(Client.Genre.FEMME);
+        client.setActif(true);
+        client.setDateCreation(LocalDateTime.now().minusMonths(6));
+        client.setWishlist(new HashSet<>(Set.of(1L, 2L, 3L)));
+
+        List<Adresse> adresses = new ArrayList<>();
+        for (String ville : List.of("Dakar", "Thiès")) {
+            Adresse adresse = new Adresse();
+            adresse.setLigne1("Rue 10, Médina");
+            adresse.setVille(ville);
+            adresse.setTelephone("771234567");
+            adresse.setTypeAdresse(Adresse.TypeAdresse.DOMICILE);
+            adresse.setClient(client);
+            adresses.add(adresse);
+        }
+        client.setAdresses(adresses);
+        return client;
+    }
+
+    static Commande commande(long id, Client client, int nombreLignes) {
+        Commande commande = new Commande();
+        commande.setIdCommande(id);
+        commande.setNumeroCommande("CMD-" + id);
+        commande.setDateCommande(LocalDateTime.now().minusDays(id % 30));
+        commande.setStatutCommande(Commande.StatutCommande.LIVREE);
+        commande.setModeLivraison(Commande.ModeLivraison.LIVRAISON_DOMICILE);
+        commande.setClient(client);
+
+        Commande.AdresseLivraison adresse = new Commande.AdresseLivraison();
+        adresse.setNom("Diop");
+        adresse.setPrenom("Awa");
+        adresse.setLigne1("Rue 10, Médina");
+        adresse.setVille("Dakar");
+        adresse.setTelephone("771234567");
+        commande.setAdresseLivraison(adresse);
+
+        List<LigneCommande> lignes = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < nombreLignes; i++) {
+            Produit produit = produit(i + 1);
+            LigneCommande ligne = new LigneCommande();
+            ligne.setIdLigneCommande(id * 100 + i);
+            ligne.setProduit(produit);
+            ligne.setCommande(commande);
+            ligne.setQuantite(1 + i % 3);
+            ligne.setPrixUnitaire(produit.getPrix());
+            ligne.setSousTotal(produit.getPrix().multiply(BigDecimal.valueOf(ligne.getQuantite())));
+            ligne.setNomProduitCommande(produit.getNomProduit());
+            ligne.setRefProduitCommande(produit.getRefProduit());
+            total = total.add(ligne.getSousTotal());
+            lignes.add(ligne);
+        }
+        commande.setLignesCommande(lignes);
+        commande.setMontantTotal(total);
+
+        Paiement paiement = new Paiement();
+        paiement.setIdPaiement(id);
+        paiement.setMethodePaiement(Paiement.MethodePaiement.values()[0]);
+        paiement.setStatutPaiement(Paiement.StatutPaiement.values()[0]);
+        paiement.setMontant(total);
+        paiement.setDatePaiement(LocalDateTime.now());
+        paiement.setReferencePaiement("PAY-" + id);
+        paiement.setCommande(commande);
+        commande.setPaiement(paiement);
+        return commande;
+    }
+}
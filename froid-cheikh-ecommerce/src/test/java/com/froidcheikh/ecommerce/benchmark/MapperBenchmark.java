@@ -0,0 +1,79 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.dto.ClientDTO;
+import com.froidcheikh.ecommerce.dto.CommandeDTO;
+import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.entity.Client;
+import com.froidcheikh.ecommerce.entity.Commande;
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.mapper.ClientMapper;
+import com.froidcheikh.ecommerce.mapper.CommandeMapper;
+import com.froidcheikh.ecommerce.mapper.ProduitMapper;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparaison ModelMapper (ancienne conversion) / MapStruct (mappers générés) par type de DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private ProduitMapper produitMapper;
+    private CommandeMapper commandeMapper;
+    private ClientMapper clientMapper;
+
+    private Produit produit;
+    private Commande commande;
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        produitMapper = Mappers.getMapper(ProduitMapper.class);
+        commandeMapper = Mappers.getMapper(CommandeMapper.class);
+        clientMapper = Mappers.getMapper(ClientMapper.class);
+
+        produit = DonneesBenchmark.produit(1L);
+        client = DonneesBenchmark.client(1L);
+        commande = DonneesBenchmark.commande(1L, client, 5);
+    }
+
+    @Benchmark
+    public ProduitDTO produitModelMapper() {
+        return modelMapper.map(produit, ProduitDTO.class);
+    }
+
+    @Benchmark
+    public ProduitDTO produitMapStruct() {
+        return produitMapper.toDTO(produit);
+    }
+
+    @Benchmark
+    public CommandeDTO commandeModelMapper() {
+        return modelMapper.map(commande, CommandeDTO.class);
+    }
+
+    @Benchmark
+    public CommandeDTO commandeMapStruct() {
+        return commandeMapper.toDTO(commande);
+    }
+
+    @Benchmark
+    public ClientDTO clientModelMapper() {
+        return modelMapper.map(client, ClientDTO.class);
+    }
+
+    @Benchmark
+    public ClientDTO clientMapStruct() {
+        return clientMapper.toDTO(client);
+    }
+}
@@ -0,0 +1,58 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.dto.ProduitDTO;
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.mapper.ProduitMapper;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import com.froidcheikh.ecommerce.service.IdentifiantService;
+import com.froidcheikh.ecommerce.service.ProduitCacheService;
+import com.froidcheikh.ecommerce.service.ProduitService;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Conversion d'une page de 20 produits en DTO (ProduitService.convertToDTO via getProduitsById).
+ * Le repository est simulé : seule la partie en mémoire est mesurée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProduitServiceBenchmark {
+
+    private static final int TAILLE_PAGE = 20;
+
+    private ProduitService produitService;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        DonneesBenchmark.reduireLogs();
+
+        List<Produit> produits = DonneesBenchmark.produits(TAILLE_PAGE);
+        ids = produits.stream().map(Produit::getIdProduit).toList();
+
+        ProduitRepository produitRepository = mock(ProduitRepository.class, withSettings().stubOnly());
+        when(produitRepository.findByIdIn(anyList())).thenReturn(produits);
+
+        // Cache de taille nulle : chaque appel recharge et convertit la page, c'est la conversion qui est mesurée
+        produitService = new ProduitService(produitRepository, null, null,
+                Mappers.getMapper(ProduitMapper.class), null, null, new ProduitCacheService(0, 10),
+                new IdentifiantService(0), event -> { });
+    }
+
+    @Benchmark
+    public List<ProduitDTO> convertirPage() {
+        return produitService.getProduitsById(ids);
+    }
+}
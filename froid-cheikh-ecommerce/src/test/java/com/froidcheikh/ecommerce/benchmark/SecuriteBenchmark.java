@@ -0,0 +1,120 @@
+package com.froidcheikh.ecommerce.benchmark;
+
+import com.froidcheikh.ecommerce.config.JwtConfig;
+import com.froidcheikh.ecommerce.entity.Administrateur;
+import com.froidcheikh.ecommerce.entity.Client;
+import com.froidcheikh.ecommerce.repository.AdministrateurRepository;
+import com.froidcheikh.ecommerce.repository.ClientRepository;
+import com.froidcheikh.ecommerce.security.CustomUserDetailsService;
+import com.froidcheikh.ecommerce.security.JwtTokenProvider;
+import com.froidcheikh.ecommerce.security.PrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Chemin d'authentification exécuté à chaque requête : vérification du JWT et construction du principal.
+ * avant/après compare l'ancienne implémentation (double parsing + lecture utilisateur) aux claims vérifiés une fois
+ * et à l'état du compte lu dans le cache des principaux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecuriteBenchmark {
+
+    private static final String EMAIL_ADMIN = "admin@froidcheikh.sn";
+    private static final String SECRET = new JwtConfig().getSecret();
+
+    private JwtTokenProvider jwtTokenProvider;
+    private CustomUserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
+    private String token;
+    private String emailClient;
+
+    @Setup
+    public void setUp() {
+        DonneesBenchmark.reduireLogs();
+
+        Client client = DonneesBenchmark.client(1L);
+        emailClient = client.getEmail();
+
+        Administrateur admin = new Administrateur();
+        admin.setNom("Admin");
+        admin.setPrenom("Super");
+        admin.setEmail(EMAIL_ADMIN);
+        admin.setMotDePasse(client.getMotDePasse());
+        admin.setRole(Administrateur.RoleAdmin.SUPER_ADMIN);
+        admin.setActif(true);
+
+        ClientRepository clientRepository = mock(ClientRepository.class, withSettings().stubOnly());
+        when(clientRepository.findByEmail(anyString()))
+                .thenAnswer(invocation -> emailClient.equals(invocation.getArgument(0))
+                        ? Optional.of(client) : Optional.empty());
+        AdministrateurRepository administrateurRepository = mock(AdministrateurRepository.class, withSettings().stubOnly());
+        when(administrateurRepository.findByEmail(anyString()))
+                .thenAnswer(invocation -> EMAIL_ADMIN.equals(invocation.getArgument(0))
+                        ? Optional.of(admin) : Optional.empty());
+
+        userDetailsService = new CustomUserDetailsService(clientRepository, administrateurRepository);
+        principalCache = new PrincipalCache(userDetailsService, 10_000, 60);
+        jwtTokenProvider = new JwtTokenProvider(new JwtConfig());
+        token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(client, null, client.getAuthorities()));
+    }
+
+    // Avant : clé HMAC et parser reconstruits, signature vérifiée deux fois, puis lecture de l'utilisateur
+    @Benchmark
+    public UserDetails avantAuthentificationRequete() {
+        SecretKey cle = Keys.hmacShaKeyFor(SECRET.getBytes());
+        Jwts.parserBuilder().setSigningKey(cle).build().parseClaimsJws(token);
+        String username = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    // Après : parser partagé, une seule vérification, état du compte (actif, version des jetons) lu en cache
+    @Benchmark
+    public UserDetails apresAuthentificationRequete() {
+        Claims claims = jwtTokenProvider.lireClaims(token).orElseThrow();
+        return principalCache.authentifier(claims).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<Claims> lireClaims() {
+        return jwtTokenProvider.lireClaims(token);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameClient() {
+        return userDetailsService.loadUserByUsername(emailClient);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameAdmin() {
+        return userDetailsService.loadUserByUsername(EMAIL_ADMIN);
+    }
+
+    @Benchmark
+    public UserDetails chargerPrincipalEnCache() {
+        return principalCache.charger(emailClient);
+    }
+}
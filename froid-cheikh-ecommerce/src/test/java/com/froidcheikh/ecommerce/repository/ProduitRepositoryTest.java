@@ -0,0 +1,132 @@
+package com.froidcheikh.ecommerce.repository;
+
+import com.froidcheikh.ecommerce.entity.AttributProduit;
+import com.froidcheikh.ecommerce.entity.Categorie;
+import com.froidcheikh.ecommerce.entity.Marque;
+import com.froidcheikh.ecommerce.entity.Produit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class ProduitRepositoryTest {
+
+    // Requête de la page + COUNT + un lot pour chacune des trois collections
+    private static final long REQUETES_MAX_PAR_PAGE = 5;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categorieId;
+
+    @BeforeEach
+    void setUp() {
+        Categorie categorie = new Categorie();
+        categorie.setNomCategorie("Climatiseurs");
+        entityManager.persist(categorie);
+        categorieId = categorie.getIdCategorie();
+
+        Marque marque = new Marque();
+        marque.setNomMarque("Samsung");
+        entityManager.persist(marque);
+
+        for (int i = 0; i < 30; i++) {
+            Produit produit = new Produit();
+            produit.setNomProduit("Climatiseur " + i);
+            produit.setPrix(BigDecimal.valueOf(100_000 + i));
+            produit.setStockDisponible(10);
+            produit.setRefProduit("REF-" + i);
+            produit.setCodeProduit("CODE-" + i);
+            produit.setCategorie(categorie);
+            produit.setMarque(marque);
+            produit.setListeImages(new ArrayList<>(List.of("img-" + i + "-a.jpg", "img-" + i + "-b.jpg")));
+            produit.setVideosOptionnelles(new ArrayList<>(List.of("video-" + i + ".mp4")));
+
+            AttributProduit attribut = new AttributProduit();
+            attribut.setNomAttribut("Couleur");
+            attribut.setValeurAttribut("Blanc");
+            attribut.setProduit(produit);
+            produit.setAttributs(new ArrayList<>(List.of(attribut)));
+
+            entityManager.persist(produit);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByDisponibiliteTrue_nombreDeRequetesConstant() {
+        long petitePage = compterRequetes(() ->
+                produitRepository.findByDisponibiliteTrue(PageRequest.of(0, 5)).getContent());
+        long grandePage = compterRequetes(() ->
+                produitRepository.findByDisponibiliteTrue(PageRequest.of(0, 20)).getContent());
+
+        assertThat(grandePage).isEqualTo(petitePage).isLessThanOrEqualTo(REQUETES_MAX_PAR_PAGE);
+    }
+
+    @Test
+    void autresRequetesPaginees_nombreDeRequetesBorne() {
+        PageRequest page = PageRequest.of(0, 20, Sort.by("prix"));
+
+        assertThat(compterRequetes(() -> produitRepository
+                .findByCategorieIdCategorie(categorieId, page).getContent()))
+                .isLessThanOrEqualTo(REQUETES_MAX_PAR_PAGE);
+        assertThat(compterRequetes(() -> produitRepository
+                .findWithFilters(null, null, null, categorieId, null, page).getContent()))
+                .isLessThanOrEqualTo(REQUETES_MAX_PAR_PAGE);
+        assertThat(compterRequetes(() -> produitRepository
+                .findLatestProducts(PageRequest.of(0, 20)).getContent()))
+                .isLessThanOrEqualTo(REQUETES_MAX_PAR_PAGE);
+        // Slice : pas de COUNT
+        assertThat(compterRequetes(() -> produitRepository
+                .findDisponiblesPremierePage(PageRequest.of(0, 20)).getContent()))
+                .isLessThanOrEqualTo(REQUETES_MAX_PAR_PAGE - 1);
+    }
+
+    // Parcourt toutes les relations lues par ProduitService.convertToDTO
+    private long compterRequetes(Supplier<List<Produit>> requete) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Produit> produits = requete.get();
+        for (Produit produit : produits) {
+            produit.getCategorie().getNomCategorie();
+            produit.getMarque().getNomMarque();
+            produit.getListeImages().size();
+            produit.getVideosOptionnelles().size();
+            produit.getAttributs().size();
+        }
+
+        assertThat(produits).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+}
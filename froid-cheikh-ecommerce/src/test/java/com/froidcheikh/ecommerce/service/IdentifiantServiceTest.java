@@ -0,0 +1,74 @@
+package com.froidcheikh.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentifiantServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int NUMEROS_PAR_THREAD = 50_000;
+
+    private final IdentifiantService identifiantService = new IdentifiantService(3);
+
+    @Test
+    void numeroCommande_accesConcurrent_aucunDoublon() throws Exception {
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<List<String>>> resultats = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            resultats.add(executor.submit(() -> {
+                depart.await();
+                List<String> generes = new ArrayList<>(NUMEROS_PAR_THREAD);
+                for (int i = 0; i < NUMEROS_PAR_THREAD; i++) {
+                    generes.add(identifiantService.numeroCommande());
+                }
+                return generes;
+            }));
+        }
+        depart.countDown();
+
+        for (Future<List<String>> resultat : resultats) {
+            List<String> generes = resultat.get(30, TimeUnit.SECONDS);
+            // Dans un même thread, l'ordre d'appel est aussi l'ordre lexicographique
+            assertThat(generes).isSorted();
+            numeros.addAll(generes);
+        }
+        executor.shutdown();
+
+        assertThat(numeros).hasSize(THREADS * NUMEROS_PAR_THREAD);
+    }
+
+    @Test
+    void generer_formatLisibleEtLargeurFixe() {
+        String premier = identifiantService.referencePaiement();
+        String second = identifiantService.referencePaiement();
+
+        assertThat(premier).matches("PAY-[0-9A-Z]{13}");
+        assertThat(second).isGreaterThan(premier);
+        assertThat(identifiantService.numeroSuivi()).startsWith("TRK-");
+        assertThat(identifiantService.codeProduit()).startsWith("PRD-");
+        assertThat(identifiantService.refProduit()).startsWith("REF-");
+    }
+
+    @Test
+    void noeudsDifferents_identifiantsDistincts() {
+        IdentifiantService autreNoeud = new IdentifiantService(4);
+
+        assertThat(identifiantService.prochainId()).isNotEqualTo(autreNoeud.prochainId());
+        assertThatThrownBy(() -> new IdentifiantService(1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
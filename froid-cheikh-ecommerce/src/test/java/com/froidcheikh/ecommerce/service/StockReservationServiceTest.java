@@ -0,0 +1,124 @@
+package com.froidcheikh.ecommerce.service;
+
+import com.froidcheikh.ecommerce.entity.Produit;
+import com.froidcheikh.ecommerce.repository.ProduitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:stock;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockReservationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+
+    private static final int STOCK_INITIAL = 50;
+    private static final int THREADS = 16;
+    private static final int TENTATIVES_PAR_THREAD = 10;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @AfterEach
+    void tearDown() {
+        produitRepository.deleteAll();
+    }
+
+    @Test
+    void reserver_accesConcurrentSurUnMemeProduit_neSurvendJamais() throws Exception {
+        Long id = creerProduit("CONC", STOCK_INITIAL).getIdProduit();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Integer>> resultats = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            resultats.add(executor.submit(() -> {
+                depart.await();
+                int reussites = 0;
+                for (int i = 0; i < TENTATIVES_PAR_THREAD; i++) {
+                    try {
+                        stockReservationService.reserver(Map.of(id, 1));
+                        reussites++;
+                    } catch (RuntimeException e) {
+                        // Stock épuisé
+                    }
+                }
+                return reussites;
+            }));
+        }
+        depart.countDown();
+
+        int total = 0;
+        for (Future<Integer> resultat : resultats) {
+            total += resultat.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Produit produit = produitRepository.findById(id).orElseThrow();
+        assertThat(total).isEqualTo(STOCK_INITIAL);
+        assertThat(produit.getStockDisponible()).isZero();
+        assertThat(produit.getDisponibilite()).isFalse();
+    }
+
+    @Test
+    void reserver_uneLigneInsuffisante_aucunStockModifie() {
+        Long premier = creerProduit("A", 10).getIdProduit();
+        Long second = creerProduit("B", 2).getIdProduit();
+
+        assertThatThrownBy(() -> stockReservationService.reserver(Map.of(premier, 5, second, 3)))
+                .hasMessageContaining("Stock insuffisant pour le produit ID : " + second);
+
+        assertThat(produitRepository.findById(premier).orElseThrow().getStockDisponible()).isEqualTo(10);
+        assertThat(produitRepository.findById(second).orElseThrow().getStockDisponible()).isEqualTo(2);
+    }
+
+    @Test
+    void liberer_remetEnStockEtRendDisponible() {
+        Long id = creerProduit("LIB", 1).getIdProduit();
+
+        stockReservationService.reserver(Map.of(id, 1));
+        assertThat(produitRepository.findById(id).orElseThrow().getDisponibilite()).isFalse();
+
+        stockReservationService.liberer(Map.of(id, 4));
+        Produit produit = produitRepository.findById(id).orElseThrow();
+        assertThat(produit.getStockDisponible()).isEqualTo(4);
+        assertThat(produit.getDisponibilite()).isTrue();
+    }
+
+    private Produit creerProduit(String suffixe, int stock) {
+        Produit produit = new Produit();
+        produit.setNomProduit("Climatiseur " + suffixe);
+        produit.setPrix(BigDecimal.valueOf(250_000));
+        produit.setStockDisponible(stock);
+        produit.setRefProduit("REF-" + suffixe);
+        produit.setCodeProduit("CODE-" + suffixe);
+        produit.setDisponibilite(true);
+        return produitRepository.save(produit);
+    }
+}